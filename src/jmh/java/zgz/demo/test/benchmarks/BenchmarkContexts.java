@@ -0,0 +1,97 @@
+package zgz.demo.test.benchmarks;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import zgz.demo.test.TestApplication;
+import zgz.demo.test.models.ProductEntity;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Boots the application against a private in-memory H2 database with console logging and SQL echo
+ * turned off, so benchmarks measure the request pipeline rather than log formatting.
+ */
+final class BenchmarkContexts {
+
+    static final List<String> SECURITY_LOGGERS = List.of(
+            "org.springframework.security",
+            "org.springframework.security.web.access",
+            "org.springframework.security.web.access.intercept",
+            "org.springframework.security.web.authentication",
+            "org.springframework.security.web.csrf",
+            "org.springframework.security.authorization");
+
+    private BenchmarkContexts() {
+    }
+
+    /**
+     * @param overrides {@code --key=value} arguments; they replace the benchmark defaults with the same key
+     */
+    static ConfigurableApplicationContext start(WebApplicationType type, String... overrides) {
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        args.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        args.put("spring.jpa.show-sql", "false");
+        args.put("spring.jpa.properties.hibernate.format_sql", "false");
+        args.put("spring.h2.console.enabled", "false");
+        args.put("server.port", "0");
+        args.put("logging.level.root", "WARN");
+        args.put("logging.level.zgz.demo.test", "WARN");
+        for (String logger : SECURITY_LOGGERS) {
+            args.put("logging.level." + logger, "WARN");
+        }
+        for (String override : overrides) {
+            int separator = override.indexOf('=');
+            args.put(override.substring(2, separator), override.substring(separator + 1));
+        }
+        return new SpringApplicationBuilder(TestApplication.class)
+                .web(type)
+                .run(args.entrySet().stream()
+                        .map(arg -> "--" + arg.getKey() + "=" + arg.getValue())
+                        .toArray(String[]::new));
+    }
+
+    /**
+     * Overrides that restore what application.yaml ships by default (SQL echo, DEBUG loggers), so
+     * benchmarks can compare it against the prod profile.
+     */
+    static String[] shippedConfiguration() {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.jpa.show-sql=true",
+                "--spring.jpa.properties.hibernate.format_sql=true",
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--logging.level.zgz.demo.test=DEBUG"));
+        SECURITY_LOGGERS.forEach(logger -> args.add("--logging.level." + logger + "=DEBUG"));
+        return args.toArray(String[]::new);
+    }
+
+    /**
+     * Overrides that leave the prod profile in charge of schema and logging.
+     */
+    static String[] prodConfiguration(String apiKey) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=prod",
+                "--spring.jpa.hibernate.ddl-auto=none",
+                "--products.security.api-keys.benchmark=" + apiKey));
+        SECURITY_LOGGERS.forEach(logger -> args.add("--logging.level." + logger + "=WARN"));
+        return args.toArray(String[]::new);
+    }
+
+    /**
+     * Inserts {@code rows} products spread evenly over {@code categories} categories ("cat-0" ...).
+     */
+    static void seed(ConfigurableApplicationContext context, int rows, int categories) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("INSERT INTO products (id, name, description, category, price, version) "
+                + "SELECT X, 'Product ' || X, 'Description of product ' || X, 'cat-' || MOD(X, ?), "
+                + "CAST(MOD(X, 1000) + 0.99 AS DECIMAL(38, 2)), 0 FROM SYSTEM_RANGE(1, ?)", categories, rows);
+        // The pooled optimizer hands out the block ending at the sequence value
+        jdbc.execute("ALTER SEQUENCE products_seq RESTART WITH " + (rows + ProductEntity.ID_ALLOCATION_SIZE));
+    }
+}
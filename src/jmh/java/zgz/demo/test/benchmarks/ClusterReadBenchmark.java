@@ -0,0 +1,103 @@
+package zgz.demo.test.benchmarks;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Category reads over HTTP against one or two cluster-mode instances sharing an H2 TCP server, with
+ * clients spread evenly over the instances. With the cache on, a second instance adds request
+ * handling capacity; with it off every read reaches the shared database, which bounds the scaling.
+ * Both instances run on this machine, so the numbers show the trend, not production capacity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(16)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ClusterReadBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int CATEGORIES = 1_000;
+
+    @Param({"1", "2"})
+    public int nodes;
+
+    @Param({"60s", "0s"})
+    public String cacheTtl;
+
+    private Server database;
+    private final List<ConfigurableApplicationContext> instances = new ArrayList<>();
+    private final List<String> baseUrls = new ArrayList<>();
+    private HttpClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        database = Server.createTcpServer("-tcpPort", String.valueOf(port), "-ifNotExists").start();
+        String url = "jdbc:h2:tcp://localhost:" + port + "/mem:cluster-bench;DB_CLOSE_DELAY=-1";
+        for (int i = 0; i < nodes; i++) {
+            ConfigurableApplicationContext instance = BenchmarkContexts.start(WebApplicationType.SERVLET,
+                    "--spring.datasource.url=" + url,
+                    // The first instance creates the schema; dropping it on close would pull it from under the others
+                    "--spring.jpa.hibernate.ddl-auto=" + (i == 0 ? "create" : "none"),
+                    "--products.cache.ttl=" + cacheTtl,
+                    "--products.cluster.enabled=true",
+                    "--products.cluster.node-id=bench-" + i);
+            if (i == 0) {
+                BenchmarkContexts.seed(instance, ROWS, CATEGORIES);
+            }
+            instances.add(instance);
+            baseUrls.add("http://localhost:" + instance.getEnvironment().getProperty("local.server.port"));
+        }
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        instances.reversed().forEach(ConfigurableApplicationContext::close);
+        instances.clear();
+        baseUrls.clear();
+        database.stop();
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        int node;
+
+        @Setup(Level.Trial)
+        public void pickNode(ClusterReadBenchmark benchmark, ThreadParams thread) {
+            node = thread.getThreadIndex() % benchmark.nodes;
+        }
+    }
+
+    @Benchmark
+    public int getByCategory(Caller caller) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrls.get(caller.node) + "/products/category/cat-"
+                        + ThreadLocalRandom.current().nextInt(CATEGORIES)))
+                .header("Referer", "/swagger-ui")
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,64 @@
+package zgz.demo.test.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import zgz.demo.test.models.BatchResult;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.services.ProductBatchService;
+import zgz.demo.test.services.ProductServiceImpl;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Scores are products written per second: one-by-one {@code create} against chunked JDBC batches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductBatchBenchmark {
+
+    private static final int ITEMS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private ProductServiceImpl productService;
+    private ProductBatchService batchService;
+    private List<ProductRequest> requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(WebApplicationType.NONE);
+        productService = context.getBean(ProductServiceImpl.class);
+        batchService = context.getBean(ProductBatchService.class);
+        requests = IntStream.range(0, ITEMS)
+                .mapToObj(i -> new ProductRequest("Product " + i, "Bulk product", "cat-" + (i % 10),
+                        BigDecimal.valueOf(i, 2)))
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void singleItemCreate(Blackhole blackhole) {
+        for (ProductRequest request : requests) {
+            blackhole.consume(productService.create(request));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public BatchResult batchCreate() {
+        return batchService.createAll(requests);
+    }
+}
@@ -0,0 +1,105 @@
+package zgz.demo.test.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.repositories.ProductRepository;
+import zgz.demo.test.services.OptimisticRetry;
+import zgz.demo.test.services.ProductServiceImpl;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sixteen writers hammering {@code hotRows} products. {@code blindUpdate} is the old last-writer-wins
+ * baseline; {@code conditionalUpdate} is a client doing read + If-Match write once, so
+ * {@code conflicts / (committed + conflicts)} is the 412 rate; {@code conditionalUpdateWithRetry}
+ * repeats that under {@link OptimisticRetry}, where {@code gaveUp} counts writes that exhausted their
+ * attempts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(16)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductContentionBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"1", "16", "1000"})
+    public int hotRows;
+
+    private ConfigurableApplicationContext context;
+    private ProductServiceImpl productService;
+    private ProductRepository repository;
+    private OptimisticRetry retry;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcome {
+        public long committed;
+        public long conflicts;
+        public long gaveUp;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(WebApplicationType.NONE);
+        BenchmarkContexts.seed(context, ROWS, 10);
+        productService = context.getBean(ProductServiceImpl.class);
+        repository = context.getBean(ProductRepository.class);
+        retry = context.getBean(OptimisticRetry.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void blindUpdate(Outcome outcome) {
+        long id = hotId();
+        productService.update(id, request(id, BigDecimal.ONE));
+        outcome.committed++;
+    }
+
+    @Benchmark
+    public void conditionalUpdate(Outcome outcome) {
+        long id = hotId();
+        ProductResponse current = repository.findResponseById(id).orElseThrow();
+        try {
+            productService.update(id, request(id, current.price().add(BigDecimal.ONE)), current.version());
+            outcome.committed++;
+        } catch (OptimisticLockingFailureException e) {
+            outcome.conflicts++;
+        }
+    }
+
+    @Benchmark
+    public void conditionalUpdateWithRetry(Outcome outcome) {
+        long id = hotId();
+        try {
+            retry.execute(() -> {
+                ProductResponse current = repository.findResponseById(id).orElseThrow();
+                return productService.update(id, request(id, current.price().add(BigDecimal.ONE)), current.version());
+            });
+            outcome.committed++;
+        } catch (OptimisticLockingFailureException e) {
+            outcome.gaveUp++;
+        }
+    }
+
+    private long hotId() {
+        return 1 + ThreadLocalRandom.current().nextInt(hotRows);
+    }
+
+    private static ProductRequest request(long id, BigDecimal price) {
+        return new ProductRequest("Product " + id, "Contended product", "cat-" + (id % 10), price);
+    }
+}
@@ -0,0 +1,67 @@
+package zgz.demo.test.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * End-to-end requests through the security filter chain, controller, service and Jackson.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductControllerBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int CATEGORIES = 100;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(WebApplicationType.SERVLET);
+        BenchmarkContexts.seed(context, ROWS, CATEGORIES);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getByCategory() throws Exception {
+        return mockMvc.perform(get("/products/category/{category}",
+                        "cat-" + ThreadLocalRandom.current().nextInt(CATEGORIES))
+                        .header("Referer", "/swagger-ui")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getPage() throws Exception {
+        return mockMvc.perform(get("/products")
+                        .param("after", String.valueOf(ThreadLocalRandom.current().nextInt(ROWS)))
+                        .param("limit", "100")
+                        .header("Referer", "/swagger-ui")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn();
+    }
+}
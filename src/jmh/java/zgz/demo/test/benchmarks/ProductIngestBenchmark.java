@@ -0,0 +1,66 @@
+package zgz.demo.test.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.services.ProductIngestService;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eight producers submitting creates to the write-behind queue. With a small queue the
+ * {@code accepted} counter settles at the writer's sustained drain rate (products written per
+ * second); {@code rejected} is the share answered with 429. Compare with
+ * {@link ProductBatchBenchmark#singleItemCreate}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductIngestBenchmark {
+
+    @Param({"10000"})
+    public int capacity;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductIngestService ingestService;
+    private final ProductRequest request = new ProductRequest("Product", "Ingested product", "cat-1", new BigDecimal("9.99"));
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcome {
+        public long accepted;
+        public long rejected;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(WebApplicationType.NONE,
+                "--products.ingest.enabled=true",
+                "--products.ingest.capacity=" + capacity,
+                "--products.ingest.batch-size=" + batchSize);
+        ingestService = context.getBean(ProductIngestService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void submit(Outcome outcome) {
+        if (ingestService.submit(request).isPresent()) {
+            outcome.accepted++;
+        } else {
+            outcome.rejected++;
+        }
+    }
+}
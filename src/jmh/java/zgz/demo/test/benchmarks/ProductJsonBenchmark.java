@@ -0,0 +1,39 @@
+package zgz.demo.test.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import zgz.demo.test.mappers.ProductMapper;
+import zgz.demo.test.models.ProductResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductJsonBenchmark {
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<ProductResponse> products;
+
+    @Setup
+    public void setUp() {
+        products = ProductMapper.INSTANCE.toResponseList(LongStream.rangeClosed(1, size)
+                .mapToObj(ProductMapperBenchmark::entity)
+                .toList());
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+}
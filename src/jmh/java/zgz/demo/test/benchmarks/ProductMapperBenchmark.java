@@ -0,0 +1,56 @@
+package zgz.demo.test.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import zgz.demo.test.mappers.ProductMapper;
+import zgz.demo.test.models.ProductEntity;
+import zgz.demo.test.models.ProductResponse;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductMapperBenchmark {
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private final ProductMapper mapper = ProductMapper.INSTANCE;
+    private List<ProductEntity> entities;
+    private ProductEntity entity;
+
+    @Setup
+    public void setUp() {
+        entities = LongStream.rangeClosed(1, size)
+                .mapToObj(ProductMapperBenchmark::entity)
+                .toList();
+        entity = entities.get(0);
+    }
+
+    @Benchmark
+    public ProductResponse toResponse() {
+        return mapper.toResponse(entity);
+    }
+
+    @Benchmark
+    public void toResponseList(Blackhole blackhole) {
+        blackhole.consume(mapper.toResponseList(entities));
+    }
+
+    static ProductEntity entity(long id) {
+        ProductEntity entity = new ProductEntity();
+        entity.setId(id);
+        entity.setName("Product " + id);
+        entity.setDescription("Description of product " + id);
+        entity.setCategory("cat-" + (id % 100));
+        entity.setPrice(BigDecimal.valueOf(id % 1000 * 100 + 99, 2));
+        return entity;
+    }
+}
@@ -0,0 +1,82 @@
+package zgz.demo.test.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import zgz.demo.test.config.exeptions.GlobalExceptionHandler;
+import zgz.demo.test.config.exeptions.ProductNotFoundException;
+import zgz.demo.test.models.common.ApiErrorResponse;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 404s per second through the error path, from the throw down to the response bytes. The legacy
+ * variant reproduces the previous handler: a stack-capturing exception thrown from a framework-deep
+ * call stack, its trace rendered as the WARN appender would, the timestamp formatted per call and
+ * the error body serialized as the JSON message converter would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductNotFoundBenchmark {
+
+    // Roughly the depth of a servlet request by the time it reaches the service
+    private static final int STACK_DEPTH = 120;
+    private static final DateTimeFormatter TS_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PrintWriter sink = new PrintWriter(Writer.nullWriter());
+    private final MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/products/404");
+    // Zero permits: the suppressed branch is what a flood hits after the first few lines
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler(0);
+
+    @Benchmark
+    public ResponseEntity<byte[]> legacyNotFound() throws JsonProcessingException {
+        try {
+            return nested(STACK_DEPTH, () -> {
+                throw new NoSuchElementException("Product with ID " + 404L + " not found");
+            });
+        } catch (NoSuchElementException ex) {
+            sink.print("Resource not found: " + ex.getMessage());
+            ex.printStackTrace(sink);
+            ApiErrorResponse error = ApiErrorResponse.builder()
+                    .timestamp(LocalDateTime.now().format(TS_FORMATTER))
+                    .status(HttpStatus.NOT_FOUND.value())
+                    .error("Not Found")
+                    .message("The requested resource was not found")
+                    .path(request.getRequestURI())
+                    .build();
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(objectMapper.writeValueAsBytes(error));
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> stacklessNotFound() {
+        try {
+            return nested(STACK_DEPTH, () -> {
+                throw new ProductNotFoundException(404L);
+            });
+        } catch (ProductNotFoundException ex) {
+            return handler.handleNotFound(ex, request);
+        }
+    }
+
+    private static ResponseEntity<byte[]> nested(int depth, Runnable thrower) {
+        if (depth == 0) {
+            thrower.run();
+            return null;
+        }
+        return nested(depth - 1, thrower);
+    }
+}
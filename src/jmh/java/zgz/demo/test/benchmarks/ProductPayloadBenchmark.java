@@ -0,0 +1,85 @@
+package zgz.demo.test.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+import zgz.demo.test.config.WireFormat;
+import zgz.demo.test.mappers.ProductMapper;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.services.ProductPayloadCache;
+import zgz.demo.test.services.ProductServiceImpl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Response bytes written per second on one thread: Jackson encoding the cached list on every
+ * request versus copying the pre-encoded payload. Read the {@code bytes} counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductPayloadBenchmark {
+
+    private static final String GENERATION = "all-bench-0";
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final OutputStream sink = OutputStream.nullOutputStream();
+    private List<ProductResponse> products;
+    private ProductPayloadCache payloadCache;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Written {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() {
+        products = ProductMapper.INSTANCE.toResponseList(LongStream.rangeClosed(1, size)
+                .mapToObj(ProductMapperBenchmark::entity)
+                .toList());
+        ProductServiceImpl productService = Mockito.mock(ProductServiceImpl.class);
+        Mockito.when(productService.findAll()).thenReturn(products);
+        payloadCache = new ProductPayloadCache(productService, objectMapper,
+                new MappingJackson2CborHttpMessageConverter(), new MappingJackson2SmileHttpMessageConverter(),
+                true, DataSize.ofBytes(0), Long.MAX_VALUE, Duration.ofHours(1));
+        payloadCache.all(GENERATION, WireFormat.JSON);
+    }
+
+    @Benchmark
+    public void encodePerRequest(Written written) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(products);
+        sink.write(json);
+        written.bytes += json.length;
+    }
+
+    @Benchmark
+    public void cachedPayload(Written written) throws IOException {
+        byte[] json = payloadCache.all(GENERATION, WireFormat.JSON).body();
+        sink.write(json);
+        written.bytes += json.length;
+    }
+
+    @Benchmark
+    public void cachedGzipPayload(Written written) throws IOException {
+        byte[] gzip = payloadCache.all(GENERATION, WireFormat.JSON).gzip();
+        sink.write(gzip);
+        written.bytes += gzip.length;
+    }
+}
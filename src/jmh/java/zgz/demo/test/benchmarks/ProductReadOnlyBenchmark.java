@@ -0,0 +1,85 @@
+package zgz.demo.test.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import zgz.demo.test.models.ProductEntity;
+import zgz.demo.test.repositories.ProductRepository;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads pages of managed entities inside a transaction, read-write versus read-only. A read-only
+ * session keeps no dirty-checking snapshot per entity and skips the flush at commit. Read the
+ * {@code bytesPerEntity} counter for what each loaded entity cost in allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductReadOnlyBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int PAGE = 1000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Param({"false", "true"})
+    public boolean readOnly;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository repository;
+    private TransactionTemplate transaction;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Allocation {
+        long bytes;
+        long entities;
+
+        public double bytesPerEntity() {
+            return entities == 0 ? 0 : (double) bytes / entities;
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            entities = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(WebApplicationType.NONE);
+        BenchmarkContexts.seed(context, ROWS, 100);
+        repository = context.getBean(ProductRepository.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transaction.setReadOnly(readOnly);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductEntity> loadPage(Allocation allocation) {
+        long after = ThreadLocalRandom.current().nextLong(ROWS - PAGE);
+        long threadId = Thread.currentThread().threadId();
+        long before = THREADS.getThreadAllocatedBytes(threadId);
+        List<ProductEntity> page = transaction.execute(status ->
+                repository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(PAGE)));
+        allocation.bytes += THREADS.getThreadAllocatedBytes(threadId) - before;
+        allocation.entities += page.size();
+        return page;
+    }
+}
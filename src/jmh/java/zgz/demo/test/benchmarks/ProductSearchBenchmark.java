@@ -0,0 +1,63 @@
+package zgz.demo.test.benchmarks;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.repositories.ProductRepository;
+import zgz.demo.test.services.ProductSearchIndex;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index lookup latency over a 1M-product catalog with a realistic vocabulary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "laptop", "phone", "chair", "table", "lamp", "monitor", "keyboard", "mouse", "desk", "stand",
+            "gaming", "office", "wooden", "metal", "wireless", "portable", "ergonomic", "compact", "premium", "classic"
+    };
+
+    @Param({"1000000"})
+    public int products;
+
+    private ProductSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new ProductSearchIndex(Mockito.mock(ProductRepository.class),
+                Mockito.mock(PlatformTransactionManager.class), true);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long id = 1; id <= products; id++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + id;
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " model " + (id % 5000);
+            index.index(new ProductResponse(id, name, description, "cat", BigDecimal.ONE));
+        }
+    }
+
+    @Benchmark
+    public List<Long> singleTokenPrefix() {
+        return index.search("ergo", 20);
+    }
+
+    @Benchmark
+    public List<Long> twoTokens() {
+        return index.search("gaming lap", 20);
+    }
+
+    @Benchmark
+    public List<Long> selectiveToken() {
+        return index.search("model " + ThreadLocalRandom.current().nextInt(5000), 20);
+    }
+}
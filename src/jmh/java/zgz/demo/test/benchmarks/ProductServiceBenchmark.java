@@ -0,0 +1,80 @@
+package zgz.demo.test.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import zgz.demo.test.models.ProductPage;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.services.ProductServiceImpl;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Categories hold ~100 products each whatever the table size, so {@link #findByCategory()} should
+ * stay flat across {@code rows} while {@link #findAll()} grows with it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductServiceBenchmark {
+
+    private static final int PRODUCTS_PER_CATEGORY = 100;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private ConfigurableApplicationContext context;
+    private ProductServiceImpl productService;
+    private int categories;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(WebApplicationType.NONE,
+                "--products.cache.ttl=" + (cached ? "60s" : "0s"));
+        categories = rows / PRODUCTS_PER_CATEGORY;
+        BenchmarkContexts.seed(context, rows, categories);
+        productService = context.getBean(ProductServiceImpl.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductResponse> findAll() {
+        return productService.findAll();
+    }
+
+    @Benchmark
+    public List<ProductResponse> findByCategory() {
+        return productService.findByCategory("cat-" + ThreadLocalRandom.current().nextInt(categories));
+    }
+
+    @Benchmark
+    public ProductPage findPage() {
+        return productService.findPage(ThreadLocalRandom.current().nextLong(rows), 100);
+    }
+
+    @Benchmark
+    public ProductResponse create() {
+        return productService.create(new ProductRequest("Bench", "Created by benchmark", "bench", BigDecimal.TEN));
+    }
+
+    @Benchmark
+    public ProductResponse update() {
+        long id = 1 + ThreadLocalRandom.current().nextLong(rows);
+        return productService.update(id, new ProductRequest("Updated " + id, "Updated by benchmark",
+                "cat-" + (id % categories), BigDecimal.ONE));
+    }
+}
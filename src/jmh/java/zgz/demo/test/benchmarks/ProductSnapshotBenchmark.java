@@ -0,0 +1,54 @@
+package zgz.demo.test.benchmarks;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.repositories.ProductRepository;
+import zgz.demo.test.services.ProductSnapshotStore;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Listing latency straight from the columnar snapshot. Run with {@code -prof gc} to compare the
+ * allocation rate and retained heap against the cached entity lists of {@link ProductServiceBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductSnapshotBenchmark {
+
+    @Param({"1000000"})
+    public int products;
+
+    @Param({"100"})
+    public int categories;
+
+    private ProductSnapshotStore store;
+
+    @Setup
+    public void setUp() {
+        ProductRepository repository = Mockito.mock(ProductRepository.class);
+        Mockito.when(repository.streamAllResponses()).thenAnswer(invocation -> LongStream.rangeClosed(1, products)
+                .mapToObj(id -> new ProductResponse(id, "Product " + id, "Description of product " + id,
+                        "category-" + (id % categories), BigDecimal.valueOf(id % 100_000, 2))));
+        store = new ProductSnapshotStore(repository, Mockito.mock(PlatformTransactionManager.class), 10_000);
+        store.rebuild();
+    }
+
+    @Benchmark
+    public List<ProductResponse> findAll() {
+        return store.findAll();
+    }
+
+    @Benchmark
+    public List<ProductResponse> findByCategory() {
+        return store.findByCategory("category-7");
+    }
+}
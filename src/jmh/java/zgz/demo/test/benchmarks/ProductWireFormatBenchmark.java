@@ -0,0 +1,83 @@
+package zgz.demo.test.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import zgz.demo.test.mappers.ProductMapper;
+import zgz.demo.test.models.ProductResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode and decode time of the full product list per wire format. Payload sizes are printed in
+ * setup; gzip is timed on top of the JSON encoding, as the server and client pay it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductWireFormatBenchmark {
+
+    private static final TypeReference<List<ProductResponse>> LIST = new TypeReference<>() {
+    };
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"JSON", "JSON_GZIP", "CBOR", "SMILE"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private boolean gzip;
+    private List<ProductResponse> products;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        products = ProductMapper.INSTANCE.toResponseList(LongStream.rangeClosed(1, size)
+                .mapToObj(ProductMapperBenchmark::entity)
+                .toList());
+        gzip = format.equals("JSON_GZIP");
+        mapper = switch (format) {
+            case "CBOR" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "SMILE" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        encoded = encode();
+        System.out.printf("%n%s: %,d products -> %,d bytes%n", format, size, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (!gzip) {
+            return mapper.writeValueAsBytes(products);
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer, 8192)) {
+            mapper.writeValue(out, products);
+        }
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public List<ProductResponse> decode() throws IOException {
+        if (!gzip) {
+            return mapper.readValue(encoded, LIST);
+        }
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded), 8192)) {
+            return mapper.readValue(in, LIST);
+        }
+    }
+}
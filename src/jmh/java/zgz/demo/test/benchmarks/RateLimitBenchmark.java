@@ -0,0 +1,73 @@
+package zgz.demo.test.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import zgz.demo.test.config.ClientRateLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one admission decision under contention, for a single hot client and for many. The locked
+ * variant is the textbook token bucket (tokens plus last refill, updated under the bucket's monitor);
+ * the GCRA variant is {@link ClientRateLimiter}, one compare-and-set on a single long. Rates are high
+ * enough that every call is admitted, so both sides take the same decision.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RateLimitBenchmark {
+
+    private static final int RATE = 1_000_000_000;
+
+    @Param({"1", "10000"})
+    public int clients;
+
+    private String[] names;
+    private ClientRateLimiter gcra;
+    private final ConcurrentHashMap<String, LockedBucket> locked = new ConcurrentHashMap<>();
+
+    private static final class LockedBucket {
+        private double tokens = RATE;
+        private long refilledAt = System.nanoTime();
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(RATE, tokens + (now - refilledAt) * (RATE / 1e9));
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        names = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            names[i] = "10.0." + (i / 256) + "." + (i % 256);
+        }
+        gcra = new ClientRateLimiter(RATE, RATE, clients, Duration.ofMinutes(1));
+    }
+
+    @Benchmark
+    public boolean lockedBucket() {
+        return locked.computeIfAbsent(client(), key -> new LockedBucket()).tryAcquire();
+    }
+
+    @Benchmark
+    public long gcra() {
+        return gcra.tryAcquire(client());
+    }
+
+    private String client() {
+        return names[ThreadLocalRandom.current().nextInt(names.length)];
+    }
+}
@@ -0,0 +1,33 @@
+package zgz.demo.test.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start of the full servlet application: the configuration shipped in application.yaml
+ * (ddl-auto update, SQL echo, DEBUG loggers) against the prod profile (Flyway, no introspection).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(5)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class RuntimeProfileStartupBenchmark {
+
+    @Param({"shipped", "prod"})
+    public String profile;
+
+    @Benchmark
+    public void startAndStop() {
+        String[] args = "prod".equals(profile)
+                ? BenchmarkContexts.prodConfiguration("startup")
+                : BenchmarkContexts.shippedConfiguration();
+        try (ConfigurableApplicationContext context = BenchmarkContexts.start(WebApplicationType.SERVLET, args)) {
+            context.getStartupDate();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package zgz.demo.test.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import zgz.demo.test.config.ApiKeyAuthenticationFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state RPS over real HTTP with the shipped configuration against the prod profile. The
+ * cache is disabled so every request runs (and, when shipped, pretty-prints) its SQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(32)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class RuntimeProfileThroughputBenchmark {
+
+    private static final String API_KEY = "benchmark-api-key";
+    private static final int CATEGORIES = 100;
+
+    @Param({"shipped", "prod"})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] args = "prod".equals(profile)
+                ? BenchmarkContexts.prodConfiguration(API_KEY)
+                : BenchmarkContexts.shippedConfiguration();
+        String[] withoutCache = Arrays.copyOf(args, args.length + 1);
+        withoutCache[args.length] = "--products.cache.ttl=0s";
+        context = BenchmarkContexts.start(WebApplicationType.SERVLET, withoutCache);
+        BenchmarkContexts.seed(context, 10_000, CATEGORIES);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getByCategory() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/products/category/cat-"
+                        + ThreadLocalRandom.current().nextInt(CATEGORIES)))
+                .header("Referer", "/swagger-ui")
+                .header(ApiKeyAuthenticationFilter.HEADER, API_KEY)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,63 @@
+package zgz.demo.test.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import zgz.demo.test.config.ApiKeyAuthenticationFilter;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Per-request cost of the security filter chain on a cached read: the default Referer check with
+ * the DEBUG security logging shipped in application.yaml, against the prod API-key chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SecurityFilterBenchmark {
+
+    private static final String API_KEY = "benchmark-api-key";
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] args = "prod".equals(profile)
+                ? BenchmarkContexts.prodConfiguration(API_KEY)
+                : BenchmarkContexts.shippedConfiguration();
+        context = BenchmarkContexts.start(WebApplicationType.SERVLET, args);
+        BenchmarkContexts.seed(context, 1_000, 10);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult cachedCategoryRead() throws Exception {
+        return mockMvc.perform(get("/products/category/{category}", "cat-1")
+                        .header("Referer", "/swagger-ui")
+                        .header(ApiKeyAuthenticationFilter.HEADER, API_KEY)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn();
+    }
+}
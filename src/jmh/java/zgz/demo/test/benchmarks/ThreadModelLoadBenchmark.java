@@ -0,0 +1,72 @@
+package zgz.demo.test.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test over real HTTP: 512 concurrent clients against Tomcat on platform threads (default
+ * 200-thread pool) and on virtual threads (the profile admits 256 at once). The cache is disabled so
+ * every request blocks on JDBC.
+ * Both modes get the same fixed Hikari pool, overriding the virtual-threads profile's 64, so the
+ * comparison is of the thread model alone; each pool size is measured in both modes.
+ * Throughput gives the sustainable RPS, sample time gives the p99.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(512)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ThreadModelLoadBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int CATEGORIES = 1_000;
+
+    @Param({"platform", "virtual-threads"})
+    public String mode;
+
+    @Param({"10", "64"})
+    public int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(WebApplicationType.SERVLET,
+                "--spring.profiles.active=" + ("platform".equals(mode) ? "default" : mode),
+                "--products.cache.ttl=0s",
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--spring.datasource.hikari.minimum-idle=" + poolSize);
+        BenchmarkContexts.seed(context, ROWS, CATEGORIES);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getByCategory() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/products/category/cat-"
+                        + ThreadLocalRandom.current().nextInt(CATEGORIES)))
+                .header("Referer", "/swagger-ui")
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
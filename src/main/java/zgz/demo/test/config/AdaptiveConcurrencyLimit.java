@@ -0,0 +1,73 @@
+package zgz.demo.test.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-flight limit that follows latency instead of a fixed count (AIMD). Each completed request is
+ * compared with the best recent latency of its route: while requests stay within {@code tolerance}
+ * times that baseline and the limit is in use, it grows by about one per {@code limit} completions; a
+ * slower request cuts it by a tenth, at most once per that request's latency. Routes keep separate
+ * baselines, so a full listing is never judged against a lookup by id. Queueing in the JDBC pool or
+ * the database shows up as latency well before threads run out, so the node sheds before it stalls.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final LongSupplier clock;
+    private final AtomicInteger limit;
+    // Lowest recent latency per route; drifts up slowly so a lastingly slower workload becomes the new normal
+    private final ConcurrentHashMap<String, AtomicLong> baselines = new ConcurrentHashMap<>();
+    private final AtomicLong lastDecrease;
+
+    public AdaptiveConcurrencyLimit(int minLimit, int maxLimit, double tolerance, LongSupplier clock) {
+        if (minLimit < 1 || maxLimit < minLimit || tolerance < 1) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max and tolerance must be at least 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.clock = clock;
+        this.limit = new AtomicInteger(maxLimit);
+        this.lastDecrease = new AtomicLong(clock.getAsLong());
+    }
+
+    public int limit() {
+        return limit.get();
+    }
+
+    /**
+     * @return the start time to hand back to {@link #complete}
+     */
+    public long start() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * @param route    what the request is, e.g. its method and path pattern; only a bounded set of
+     *                 values may be passed
+     * @param inFlight requests in flight, this one included, when it started
+     */
+    public void complete(String route, long start, int inFlight) {
+        long now = clock.getAsLong();
+        long latency = now - start;
+        AtomicLong baseline = baselines.computeIfAbsent(route, key -> new AtomicLong(Long.MAX_VALUE));
+        long best = baseline.accumulateAndGet(latency,
+                (current, sample) -> sample < current ? sample : current + ((sample - current) >> 10));
+        int current = limit.get();
+        if (latency > best * tolerance) {
+            long last = lastDecrease.get();
+            if (now - last > latency && lastDecrease.compareAndSet(last, now)) {
+                limit.set(Math.max(minLimit, current - Math.max(1, current / 10)));
+            }
+        } else if (current < maxLimit && inFlight * 2 >= current
+                && ThreadLocalRandom.current().nextInt(current) == 0) {
+            limit.compareAndSet(current, current + 1);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package zgz.demo.test.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+/**
+ * Stateless API-key authentication. Keys are hashed once at startup; a presented key is hashed
+ * and compared against every known digest with {@link MessageDigest#isEqual}, so neither the
+ * comparison nor the loop leaks which key (or how much of it) matched. Nothing is logged per request.
+ */
+public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-API-Key";
+
+    private final byte[][] digests;
+    private final Authentication[] authentications;
+    private final SecurityContextHolderStrategy contextHolder = SecurityContextHolder.getContextHolderStrategy();
+
+    /**
+     * @param apiKeys API key per client id
+     */
+    public ApiKeyAuthenticationFilter(Map<String, String> apiKeys) {
+        this.digests = new byte[apiKeys.size()][];
+        this.authentications = new Authentication[apiKeys.size()];
+        int i = 0;
+        for (Map.Entry<String, String> entry : apiKeys.entrySet()) {
+            digests[i] = sha256(entry.getValue());
+            authentications[i] = UsernamePasswordAuthenticationToken.authenticated(
+                    entry.getKey(), null, AuthorityUtils.createAuthorityList("ROLE_CLIENT"));
+            i++;
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String apiKey = request.getHeader(HEADER);
+        if (apiKey != null) {
+            Authentication authentication = match(sha256(apiKey));
+            if (authentication != null) {
+                SecurityContext context = contextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                contextHolder.setContext(context);
+            }
+        }
+        // Unauthenticated requests are rejected (401) by the authorization rules downstream
+        filterChain.doFilter(request, response);
+    }
+
+    private Authentication match(byte[] digest) {
+        Authentication matched = null;
+        for (int i = 0; i < digests.length; i++) {
+            if (MessageDigest.isEqual(digests[i], digest)) {
+                matched = authentications[i];
+            }
+        }
+        return matched;
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package zgz.demo.test.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import java.util.Map;
+
+@Configuration
+@EnableWebSecurity
+@Profile("prod")
+@Slf4j
+public class ApiKeySecurityConfig {
+
+    @Bean
+    public SecurityFilterChain apiKeySecurityFilterChain(HttpSecurity http, Environment environment) throws Exception {
+        Map<String, String> apiKeys = Binder.get(environment)
+                .bind("products.security.api-keys", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        if (apiKeys.isEmpty()) {
+            log.warn("No products.security.api-keys configured: every protected request will be rejected");
+        }
+
+        http.csrf(AbstractHttpConfigurer::disable);
+
+        http.cors(Customizer.withDefaults());
+
+        http.sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+
+        // No request cache, anonymous principal or default login pages: nothing to allocate per request
+        http.requestCache(AbstractHttpConfigurer::disable);
+        http.anonymous(AbstractHttpConfigurer::disable);
+        http.formLogin(AbstractHttpConfigurer::disable);
+        http.logout(AbstractHttpConfigurer::disable);
+
+        http.addFilterBefore(new ApiKeyAuthenticationFilter(apiKeys), BasicAuthenticationFilter.class);
+
+        http.exceptionHandling(eh -> eh.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)));
+
+        http.authorizeHttpRequests(auth -> auth
+                .requestMatchers("/actuator/health/**", "/actuator/info", "/actuator/prometheus").permitAll()
+                .anyRequest().authenticated()
+        );
+
+        return http.build();
+    }
+}
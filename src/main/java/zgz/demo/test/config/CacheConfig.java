@@ -0,0 +1,38 @@
+package zgz.demo.test.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCTS_BY_CATEGORY = "productsByCategory";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${products.cache.ttl:60s}") Duration ttl,
+                                     @Value("${products.cache.max-products:100000}") long maxProducts) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Collection caches are bounded by the number of products they hold, not by the number of keys
+        cacheManager.registerCustomCache(PRODUCTS, listCache(ttl, maxProducts));
+        cacheManager.registerCustomCache(PRODUCTS_BY_CATEGORY, listCache(ttl, maxProducts));
+        return cacheManager;
+    }
+
+    private static Cache<Object, Object> listCache(Duration ttl, long maxProducts) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxProducts)
+                .weigher((Object key, Object value) -> Math.max(1, ((List<?>) value).size()))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
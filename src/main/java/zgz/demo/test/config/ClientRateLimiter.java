@@ -0,0 +1,73 @@
+package zgz.demo.test.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets in their GCRA form: a bucket is a single {@link AtomicLong} holding the
+ * time at which it will be full again, updated with one compare-and-set per request and no locks.
+ * A bucket idle for {@code idleTimeout} is full, so evicting it loses nothing; the bound on
+ * {@code maxClients} keeps memory flat under a flood of distinct clients.
+ */
+public class ClientRateLimiter {
+
+    private final long interval;
+    private final long tolerance;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * @param permitsPerSecond sustained rate per client
+     * @param burst            requests a client may make at once after being idle
+     */
+    public ClientRateLimiter(int permitsPerSecond, int burst, long maxClients, Duration idleTimeout) {
+        this(permitsPerSecond, burst, maxClients, idleTimeout, System::nanoTime);
+    }
+
+    /**
+     * @param clock nanosecond ticker, {@link System#nanoTime()} outside tests
+     */
+    public ClientRateLimiter(int permitsPerSecond, int burst, long maxClients, Duration idleTimeout,
+                             LongSupplier clock) {
+        if (permitsPerSecond < 1 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be at least 1");
+        }
+        this.interval = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.tolerance = interval * (burst - 1);
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idleTimeout.compareTo(Duration.ofNanos(interval * burst)) < 0
+                        ? Duration.ofNanos(interval * burst)
+                        : idleTimeout)
+                .build();
+    }
+
+    /**
+     * @return 0 when the request may proceed, otherwise the nanoseconds until it would
+     */
+    public long tryAcquire(String client) {
+        AtomicLong bucket = buckets.get(client, key -> new AtomicLong(clock.getAsLong()));
+        while (true) {
+            long now = clock.getAsLong();
+            long full = bucket.get();
+            long start = full - now < 0 ? now : full;
+            long wait = start - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(full, start + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    public long clients() {
+        return buckets.estimatedSize();
+    }
+}
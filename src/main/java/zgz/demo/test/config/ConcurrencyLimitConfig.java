@@ -0,0 +1,35 @@
+package zgz.demo.test.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Registers {@link ConcurrencyLimitFilter} when {@code products.concurrency.max-requests} is set, as
+ * the virtual-threads profile does.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.concurrency.max-requests")
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(@Value("${products.concurrency.max-requests}") int maxRequests,
+                                                         @Value("${products.concurrency.queue-timeout:5s}") Duration queueTimeout,
+                                                         MeterRegistry registry) {
+        return new ConcurrencyLimitFilter(maxRequests, queueTimeout, registry);
+    }
+
+    // Behind the rate limiter, so requests it rejects never wait for a permit
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(ConcurrencyLimitFilter filter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,105 @@
+package zgz.demo.test.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the requests the node works on at once. On virtual threads nothing else does: Tomcat starts
+ * a thread per request, so a burst would otherwise all queue on the JDBC pool. A request over the cap
+ * parks, which costs a virtual thread little, for up to {@code queueTimeout} and is then shed with 503.
+ * A request that goes async keeps its permit until its async processing completes.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long queueTimeoutNanos;
+    private final Counter shed;
+
+    public ConcurrencyLimitFilter(int maxRequests, Duration queueTimeout, MeterRegistry registry) {
+        this.permits = new Semaphore(maxRequests, true);
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.shed = Counter.builder("products.requests.rejected")
+                .description("Requests rejected before reaching the application")
+                .tag("reason", "queue_timeout")
+                .register(registry);
+        Gauge.builder("products.requests.queued", permits, Semaphore::getQueueLength)
+                .description("Requests waiting for one of the concurrent request permits")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Health probes must keep answering while requests queue
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!acquire()) {
+            shed.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new Release());
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                permits.release();
+            }
+        }
+    }
+
+    private boolean acquire() {
+        try {
+            return permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // onComplete follows errors and timeouts too, so it is the one place to release
+    private final class Release implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permits.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        // A restarted async cycle drops its listeners unless they register again
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package zgz.demo.test.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read/write split: read-only transactions run on the replica pool, everything else on the primary
+ * built from {@code spring.datasource}. The lazy proxy defers fetching a physical connection until
+ * the first statement, by which time the transaction has marked the connection read-only, and that
+ * flag is what picks the pool. Replaces Boot's single datasource only when the replica is enabled.
+ * The replica may lag, so reads whose result outlives the request (cache loads, the cluster bus,
+ * the snapshot and search index builds) use read-write transactions to stay on the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.datasource.replica.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("products.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(replica);
+        return routing;
+    }
+}
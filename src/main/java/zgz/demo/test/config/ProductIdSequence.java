@@ -0,0 +1,43 @@
+package zgz.demo.test.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static zgz.demo.test.models.ProductEntity.ID_ALLOCATION_SIZE;
+
+/**
+ * Moves {@code products_seq} past the ids of a database created while products still used IDENTITY,
+ * before the first request can insert. Hibernate's pooled optimizer hands out the block ending at
+ * the sequence value, so the sequence must sit a whole block above MAX(id). A sequence that already
+ * does is left alone, since restarting it could reissue a block another node still holds.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class ProductIdSequence implements InitializingBean {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        List<Long> next = jdbcTemplate.queryForList(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = 'PRODUCTS_SEQ'",
+                Long.class);
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Long.class);
+        if (next.isEmpty() || maxId == null) {
+            return;
+        }
+        long floor = maxId + ID_ALLOCATION_SIZE;
+        if (next.get(0) < floor) {
+            jdbcTemplate.execute("ALTER SEQUENCE products_seq RESTART WITH " + floor);
+            log.info("products_seq restarted at {} to clear existing ids up to {}", floor, maxId);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package zgz.demo.test.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Registers {@link RateLimitFilter} outside the MVC dispatch, so rejected requests cost no handler
+ * lookup, message conversion or transaction.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(@Value("${products.rate-limit.read.rate:200}") int readRate,
+                                           @Value("${products.rate-limit.read.burst:400}") int readBurst,
+                                           @Value("${products.rate-limit.write.rate:20}") int writeRate,
+                                           @Value("${products.rate-limit.write.burst:40}") int writeBurst,
+                                           @Value("${products.rate-limit.max-clients:100000}") long maxClients,
+                                           @Value("${products.rate-limit.idle-timeout:1m}") Duration idleTimeout,
+                                           @Value("${products.rate-limit.min-in-flight:16}") int minInFlight,
+                                           @Value("${products.rate-limit.max-in-flight:256}") int maxInFlight,
+                                           @Value("${products.rate-limit.latency-tolerance:2.0}") double latencyTolerance,
+                                           MeterRegistry registry) {
+        return new RateLimitFilter(
+                new ClientRateLimiter(readRate, readBurst, maxClients, idleTimeout),
+                new ClientRateLimiter(writeRate, writeBurst, maxClients, idleTimeout),
+                new AdaptiveConcurrencyLimit(minInFlight, maxInFlight, latencyTolerance, System::nanoTime),
+                registry);
+    }
+
+    // Right behind the security chain, whose authentication identifies the client
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+}
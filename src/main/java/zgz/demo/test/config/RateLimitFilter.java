@@ -0,0 +1,157 @@
+package zgz.demo.test.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Protects the node from single noisy clients and from overload as a whole. Runs after the
+ * security chain, so a client is its authenticated principal when there is one and its remote
+ * address otherwise. Behind a load balancer the remote address is the balancer's unless
+ * {@code server.forward-headers-strategy} lets the container take it from X-Forwarded-For.
+ * Reads and writes draw on separate per-client budgets (429 when exhausted); past the
+ * {@link AdaptiveConcurrencyLimit} on concurrent requests everything is shed with 503, writes first.
+ * A request that goes async stays in flight until its async processing completes, but its latency
+ * is not sampled: a stream or long poll is slow by design, not because the node is overloaded.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final ClientRateLimiter reads;
+    private final ClientRateLimiter writes;
+    private final AdaptiveConcurrencyLimit inFlightLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final SecurityContextHolderStrategy contextHolder = SecurityContextHolder.getContextHolderStrategy();
+    private final Counter limited;
+    private final Counter shed;
+
+    public RateLimitFilter(ClientRateLimiter reads, ClientRateLimiter writes, AdaptiveConcurrencyLimit inFlightLimit,
+                           MeterRegistry registry) {
+        this.reads = reads;
+        this.writes = writes;
+        this.inFlightLimit = inFlightLimit;
+        this.limited = Counter.builder("products.requests.rejected")
+                .description("Requests rejected before reaching the application")
+                .tag("reason", "rate_limited")
+                .register(registry);
+        this.shed = Counter.builder("products.requests.rejected")
+                .description("Requests rejected before reaching the application")
+                .tag("reason", "overloaded")
+                .register(registry);
+        Gauge.builder("products.requests.concurrency.limit", inFlightLimit, AdaptiveConcurrencyLimit::limit)
+                .description("Concurrent requests allowed before reads are shed")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Health probes must keep answering while the node sheds load
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean read = isRead(request.getMethod());
+        long wait = (read ? reads : writes).tryAcquire(client(request));
+        if (wait > 0) {
+            limited.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, (wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+            return;
+        }
+        int limit = inFlightLimit.limit();
+        int concurrency = inFlight.incrementAndGet();
+        // Writes are costlier and retryable by design, so they give way before reads do
+        if (concurrency > (read ? limit : Math.max(1, limit * 3 / 4))) {
+            inFlight.decrementAndGet();
+            shed.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1);
+            return;
+        }
+        long start = inFlightLimit.start();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new Release());
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                inFlight.decrementAndGet();
+                inFlightLimit.complete(route(request), start, concurrency);
+            }
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    // The pattern MVC matched, so /products/1 and /products/2 share a baseline; unmatched requests
+    // share their method's
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? request.getMethod() : request.getMethod() + " " + pattern;
+    }
+
+    private String client(HttpServletRequest request) {
+        Authentication authentication = contextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return authentication.getName();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static boolean isRead(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    }
+
+    // onComplete follows errors and timeouts too, so it is the one place to release
+    private final class Release implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            inFlight.decrementAndGet();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        // A restarted async cycle drops its listeners unless they register again
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
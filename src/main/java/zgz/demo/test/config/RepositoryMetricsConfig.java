@@ -0,0 +1,78 @@
+package zgz.demo.test.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-method repository timings ({@code products.repository}). Every method of a repository gets its
+ * timer when the repository proxy is built, so a call only looks its timer up and records a
+ * {@code nanoTime} delta, unlike Spring Data's {@code spring.data.repository.invocations} listener,
+ * which builds tags and a sample per call and is switched off in {@code application.yaml}.
+ * Methods returning a {@code Stream} are timed until the stream is opened, not consumed.
+ */
+@Configuration
+public class RepositoryMetricsConfig {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    // Static and lazy on the registry: post-processors are created before ordinary beans
+    @Bean
+    public static BeanPostProcessor repositoryTimersPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxy, repository) -> proxy.addAdvice(
+                                    new RepositoryTimers(registry.getObject(), repository.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    static final class RepositoryTimers implements MethodInterceptor {
+
+        private final Map<Method, Timer> timers;
+
+        RepositoryTimers(MeterRegistry registry, Class<?> repository) {
+            Map<Method, Timer> timers = new HashMap<>();
+            for (Method method : repository.getMethods()) {
+                timers.put(method, Timer.builder("products.repository")
+                        .description("Latency of repository methods")
+                        .tag("repository", repository.getSimpleName())
+                        .tag("method", method.getName())
+                        .publishPercentiles(PERCENTILES)
+                        .publishPercentileHistogram()
+                        .register(registry));
+            }
+            this.timers = Map.copyOf(timers);
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Timer timer = timers.get(invocation.getMethod());
+            if (timer == null) {
+                return invocation.proceed();
+            }
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
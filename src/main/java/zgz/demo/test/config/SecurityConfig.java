@@ -2,6 +2,7 @@ package zgz.demo.test.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.Customizer;
@@ -20,6 +21,7 @@ import java.util.function.Supplier;
 
 @Configuration
 @EnableWebSecurity
+@Profile("!prod")
 public class SecurityConfig {
 
     @Bean
@@ -0,0 +1,70 @@
+package zgz.demo.test.config;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Encodings the collection endpoints can serve. CBOR and Smile are binary JSON data models: field
+ * names and numbers are written compactly and a {@code BigDecimal} price travels as an unscaled
+ * integer plus scale instead of decimal text.
+ */
+public enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(new MediaType("application", "x-jackson-smile"));
+
+    private final MediaType mediaType;
+
+    WireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Narrows a collection ETag to this format and, when {@code gzip}, that encoding: a strong tag
+     * promises identical bytes, which the same data in another format or encoding is not.
+     */
+    public String etag(String etag, boolean gzip) {
+        return etag.substring(0, etag.length() - 1) + "-" + name().toLowerCase(Locale.ROOT) + (gzip ? "-gzip" : "") + "\"";
+    }
+
+    /**
+     * @return the most preferred format the {@code Accept} header allows, JSON when it names none
+     */
+    public static WireFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        return accepted.stream()
+                .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                .filter(type -> type.getQualityValue() > 0)
+                .map(WireFormat::exactly)
+                .filter(format -> format != null)
+                .findFirst()
+                .orElse(JSON);
+    }
+
+    // Wildcards fall back to JSON; binary formats have to be asked for by name
+    private static WireFormat exactly(MediaType type) {
+        for (WireFormat format : values()) {
+            if (format.mediaType.equalsTypeAndSubtype(type)) {
+                return format;
+            }
+        }
+        return type.isWildcardSubtype() ? JSON : null;
+    }
+}
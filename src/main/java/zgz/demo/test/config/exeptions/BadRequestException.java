@@ -0,0 +1,12 @@
+package zgz.demo.test.config.exeptions;
+
+/**
+ * A request parameter or header the API cannot accept. The message is returned to the client, so it
+ * must only describe the caller's own input.
+ */
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package zgz.demo.test.config.exeptions;
+
+/**
+ * The change feed no longer holds every change after the caller's cursor.
+ */
+public class ChangesPrunedException extends RuntimeException {
+
+    public ChangesPrunedException(long since) {
+        super("Changes after " + since + " are no longer retained, resynchronise and resume from 0");
+    }
+}
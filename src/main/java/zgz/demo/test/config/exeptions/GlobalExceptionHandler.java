@@ -1,16 +1,28 @@
 package zgz.demo.test.config.exeptions;
 
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
 import zgz.demo.test.models.common.ApiErrorResponse;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
 
 @ControllerAdvice
 @Slf4j
@@ -19,22 +31,194 @@ public class GlobalExceptionHandler {
   private static final DateTimeFormatter TS_FORMATTER =
       DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-  @ExceptionHandler(NoSuchElementException.class)
-  public ResponseEntity<ApiErrorResponse> handleNotFound(
-      NoSuchElementException ex, HttpServletRequest request) {
+  private static final String NOT_FOUND_MESSAGE = "The requested resource was not found";
 
-    log.warn("Resource not found: {}", ex.getMessage(), ex);
+  // The timestamp has second precision, so it is formatted at most once per second, together with
+  // the 404 body up to its path: everything in it but the path is the same for the whole second
+  private record Timestamp(long second, String text, byte[] notFoundHead) {}
+
+  private volatile Timestamp timestamp = new Timestamp(-1, "", new byte[0]);
+
+  private final RateLimitedLogger notFoundLog;
+
+  public GlobalExceptionHandler(@Value("${products.errors.not-found-logs-per-second:10}") int notFoundLogsPerSecond) {
+    this.notFoundLog = new RateLimitedLogger(log, notFoundLogsPerSecond);
+  }
+
+  // Scanners and stale clients produce 404s in floods: sampled logging, no stack trace, and the
+  // ApiErrorResponse JSON written from its precomputed head instead of built and serialized each time
+  @ExceptionHandler({NoSuchElementException.class, NoResourceFoundException.class})
+  public ResponseEntity<byte[]> handleNotFound(
+      Exception ex, HttpServletRequest request) {
+
+    notFoundLog.warn("Resource not found: {}", request.getRequestURI());
+
+    byte[] head = current().notFoundHead();
+    byte[] path = JsonStringEncoder.getInstance().quoteAsUTF8(request.getRequestURI());
+    byte[] body = Arrays.copyOf(head, head.length + path.length + 2);
+    System.arraycopy(path, 0, body, head.length, path.length);
+    body[body.length - 2] = '"';
+    body[body.length - 1] = '}';
+
+    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(body);
+  }
+
+  // Only our own input checks: an arbitrary IllegalArgumentException may carry internals and is a 500
+  @ExceptionHandler(BadRequestException.class)
+  public ResponseEntity<ApiErrorResponse> handleBadRequest(
+      BadRequestException ex, HttpServletRequest request) {
+
+    log.debug("Bad request: {}", ex.getMessage());
+
+    ApiErrorResponse error =
+        ApiErrorResponse.builder()
+            .timestamp(timestamp())
+            .status(HttpStatus.BAD_REQUEST.value())
+            .error("Bad Request")
+            .message(ex.getMessage())
+            .path(request.getRequestURI())
+            .build();
+
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+  }
+
+  @ExceptionHandler(MethodArgumentNotValidException.class)
+  public ResponseEntity<ApiErrorResponse> handleInvalidBody(
+      MethodArgumentNotValidException ex, HttpServletRequest request) {
+
+    String message = ex.getBindingResult().getFieldErrors().stream()
+        .map(error -> error.getField() + " " + error.getDefaultMessage())
+        .sorted()
+        .collect(Collectors.joining(", "));
+    log.debug("Validation failed: {}", message);
+
+    ApiErrorResponse error =
+        ApiErrorResponse.builder()
+            .timestamp(timestamp())
+            .status(HttpStatus.BAD_REQUEST.value())
+            .error("Bad Request")
+            .message(message)
+            .path(request.getRequestURI())
+            .build();
+
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+  }
+
+  @ExceptionHandler(PreconditionFailedException.class)
+  public ResponseEntity<ApiErrorResponse> handlePreconditionFailed(
+      PreconditionFailedException ex, HttpServletRequest request) {
+
+    log.debug("Precondition failed: {}", ex.getMessage());
 
     ApiErrorResponse error =
         ApiErrorResponse.builder()
-            .timestamp(LocalDateTime.now().format(TS_FORMATTER))
-            .status(HttpStatus.NOT_FOUND.value())
-            .error("Not Found")
-            .message("The requested resource was not found")
+            .timestamp(timestamp())
+            .status(HttpStatus.PRECONDITION_FAILED.value())
+            .error("Precondition Failed")
+            .message(ex.getMessage())
             .path(request.getRequestURI())
             .build();
 
-    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+  }
+
+  @ExceptionHandler(ChangesPrunedException.class)
+  public ResponseEntity<ApiErrorResponse> handleGone(
+      ChangesPrunedException ex, HttpServletRequest request) {
+
+    log.debug("Gone: {}", ex.getMessage());
+
+    ApiErrorResponse error =
+        ApiErrorResponse.builder()
+            .timestamp(timestamp())
+            .status(HttpStatus.GONE.value())
+            .error("Gone")
+            .message(ex.getMessage())
+            .path(request.getRequestURI())
+            .build();
+
+    return ResponseEntity.status(HttpStatus.GONE).body(error);
+  }
+
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ApiErrorResponse> handleConflict(
+      OptimisticLockingFailureException ex, HttpServletRequest request) {
+
+    log.debug("Conflict: {}", ex.getMessage());
+
+    ApiErrorResponse error =
+        ApiErrorResponse.builder()
+            .timestamp(timestamp())
+            .status(HttpStatus.CONFLICT.value())
+            .error("Conflict")
+            .message("The product was modified concurrently, reload it and retry")
+            .path(request.getRequestURI())
+            .build();
+
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+  }
+
+  @ExceptionHandler(QueryTimeoutException.class)
+  public ResponseEntity<ApiErrorResponse> handleQueryTimeout(
+      QueryTimeoutException ex, HttpServletRequest request) {
+
+    log.warn("Query timed out: {}", ex.getMessage());
+
+    ApiErrorResponse error =
+        ApiErrorResponse.builder()
+            .timestamp(timestamp())
+            .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+            .error("Service Unavailable")
+            .message("The request timed out, retry later")
+            .path(request.getRequestURI())
+            .build();
+
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(error);
+  }
+
+  // The JDBC pool had no connection to give within its timeout; the request may well succeed later
+  @ExceptionHandler(CannotCreateTransactionException.class)
+  public ResponseEntity<ApiErrorResponse> handleNoConnection(
+      CannotCreateTransactionException ex, HttpServletRequest request) {
+
+    log.warn("Could not open a transaction: {}", ex.getMessage());
+
+    ApiErrorResponse error =
+        ApiErrorResponse.builder()
+            .timestamp(timestamp())
+            .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+            .error("Service Unavailable")
+            .message("The database is busy, retry later")
+            .path(request.getRequestURI())
+            .build();
+
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(error);
+  }
+
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public ResponseEntity<ApiErrorResponse> handleUnavailable(
+      ServiceUnavailableException ex, HttpServletRequest request) {
+
+    log.debug("Service unavailable: {}", ex.getMessage());
+
+    ApiErrorResponse error =
+        ApiErrorResponse.builder()
+            .timestamp(timestamp())
+            .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+            .error("Service Unavailable")
+            .message(ex.getMessage())
+            .path(request.getRequestURI())
+            .build();
+
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(error);
   }
 
   @ExceptionHandler(Exception.class)
@@ -45,7 +229,7 @@ public class GlobalExceptionHandler {
 
     ApiErrorResponse error =
         ApiErrorResponse.builder()
-            .timestamp(LocalDateTime.now().format(TS_FORMATTER))
+            .timestamp(timestamp())
             .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
             .error("Internal Server Error")
             .message("An unexpected error occurred")
@@ -54,4 +238,21 @@ public class GlobalExceptionHandler {
 
     return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
   }
+
+  private String timestamp() {
+    return current().text();
+  }
+
+  private Timestamp current() {
+    long second = System.currentTimeMillis() / 1000;
+    Timestamp current = timestamp;
+    if (current.second() != second) {
+      String text = LocalDateTime.now().format(TS_FORMATTER);
+      String notFoundHead = "{\"timestamp\":\"" + text + "\",\"status\":" + HttpStatus.NOT_FOUND.value()
+          + ",\"error\":\"Not Found\",\"message\":\"" + NOT_FOUND_MESSAGE + "\",\"path\":\"";
+      current = new Timestamp(second, text, notFoundHead.getBytes(StandardCharsets.UTF_8));
+      timestamp = current;
+    }
+    return current;
+  }
 }
@@ -0,0 +1,13 @@
+package zgz.demo.test.config.exeptions;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * The product is no longer at the version the caller based its change on.
+ */
+public class PreconditionFailedException extends OptimisticLockingFailureException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,30 @@
+package zgz.demo.test.config.exeptions;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A missing product is an expected outcome, not a bug: the exception carries no stack trace and
+ * builds its message only when someone asks for it.
+ */
+public class ProductNotFoundException extends NoSuchElementException {
+
+    private final transient Long id;
+
+    public ProductNotFoundException(Long id) {
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Product with ID " + id + " not found";
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
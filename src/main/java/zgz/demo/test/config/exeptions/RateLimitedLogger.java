@@ -0,0 +1,53 @@
+package zgz.demo.test.config.exeptions;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets at most {@code permits} messages per second through to the underlying logger and counts the
+ * rest; the first message of the next second reports how many were dropped. A suppressed call
+ * costs two atomic operations and formats nothing.
+ */
+public class RateLimitedLogger {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Logger log;
+    private final int permits;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger used = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public RateLimitedLogger(Logger log, int permits) {
+        this.log = log;
+        this.permits = permits;
+    }
+
+    public void warn(String format, Object arg) {
+        if (!log.isWarnEnabled() || !acquire()) {
+            return;
+        }
+        long dropped = suppressed.getAndSet(0);
+        if (dropped > 0) {
+            log.warn(format + " ({} similar messages suppressed)", arg, dropped);
+        } else {
+            log.warn(format, arg);
+        }
+    }
+
+    private boolean acquire() {
+        long start = windowStart.get();
+        long now = System.nanoTime();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            used.set(0);
+        }
+        if (used.incrementAndGet() <= permits) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+}
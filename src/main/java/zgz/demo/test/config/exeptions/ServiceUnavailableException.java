@@ -0,0 +1,12 @@
+package zgz.demo.test.config.exeptions;
+
+/**
+ * A part of the node cannot serve requests yet or right now; the caller should retry shortly. The
+ * message is returned to the client.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
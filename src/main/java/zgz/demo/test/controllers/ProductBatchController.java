@@ -0,0 +1,63 @@
+package zgz.demo.test.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import zgz.demo.test.models.BatchResult;
+import zgz.demo.test.models.ProductBatchUpdateRequest;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.services.ProductBatchService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/products/batch")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Products", description = "CRUD operations for products")
+public class ProductBatchController {
+
+    private final ProductBatchService batchService;
+
+    @PostMapping
+    @Operation(
+            summary = "Create products in bulk",
+            description = "Creates all products in chunked JDBC batches and returns a per-item result report"
+    )
+    @ApiResponse(responseCode = "200", description = "Batch processed",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BatchResult.class)))
+    public ResponseEntity<BatchResult> createAll(@RequestBody List<ProductRequest> requests) {
+        return ResponseEntity.ok(batchService.createAll(requests));
+    }
+
+    @PutMapping
+    @Operation(
+            summary = "Update products in bulk",
+            description = "Updates all fields of every listed product in chunked JDBC batches and returns a per-item result report"
+    )
+    @ApiResponse(responseCode = "200", description = "Batch processed",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BatchResult.class)))
+    public ResponseEntity<BatchResult> updateAll(@RequestBody List<ProductBatchUpdateRequest> requests) {
+        return ResponseEntity.ok(batchService.updateAll(requests));
+    }
+
+    @DeleteMapping
+    @Operation(
+            summary = "Delete products in bulk",
+            description = "Deletes all listed product IDs in chunked batches and returns a per-item result report"
+    )
+    @ApiResponse(responseCode = "200", description = "Batch processed",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BatchResult.class)))
+    public ResponseEntity<BatchResult> deleteAll(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(batchService.deleteAll(ids));
+    }
+}
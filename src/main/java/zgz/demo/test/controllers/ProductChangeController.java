@@ -0,0 +1,71 @@
+package zgz.demo.test.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import zgz.demo.test.config.exeptions.ChangesPrunedException;
+import zgz.demo.test.models.ProductChange;
+import zgz.demo.test.services.ProductChangeFeed;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/products/changes")
+@RequiredArgsConstructor
+@Tag(name = "Products", description = "CRUD operations for products")
+public class ProductChangeController {
+
+    private final ProductChangeFeed changeFeed;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping
+    @Operation(
+            summary = "Stream product changes",
+            description = "Writes, as a JSON array, the creations, updates and deletions committed after sequence number `since`, "
+                    + "in commit order. Resume from the `seq` of the last entry received. Changes are kept for a limited "
+                    + "time; `since=0` starts from the oldest one kept"
+    )
+    @ApiResponse(responseCode = "200", description = "Changes streamed successfully",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductChange.class)))
+    @ApiResponse(responseCode = "410", description = "Changes after `since` have been pruned", content = @Content)
+    public ResponseEntity<StreamingResponseBody> getChanges(
+            @Parameter(description = "Last sequence number already processed", example = "0")
+            @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Maximum number of changes (max " + ProductChangeFeed.MAX_CHANGES + ")", example = "1000")
+            @RequestParam(defaultValue = "" + ProductChangeFeed.MAX_CHANGES) int limit
+    ) {
+        // Checked up front: once streaming starts the status is already committed
+        if (!changeFeed.isRetained(since)) {
+            throw new ChangesPrunedException(since);
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartArray();
+                changeFeed.stream(since, limit, change -> {
+                    try {
+                        generator.writeObject(change);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -1,13 +1,24 @@
 package zgz.demo.test.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.net.URI;
 import java.util.List;
+import java.util.Locale;
 
 // OpenAPI imports
 import io.swagger.v3.oas.annotations.Operation;
@@ -17,10 +28,18 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.Parameter;
+import zgz.demo.test.config.WireFormat;
+import zgz.demo.test.config.exeptions.BadRequestException;
 import zgz.demo.test.mappers.ProductMapper;
+import zgz.demo.test.models.ProductFilter;
+import zgz.demo.test.models.ProductPage;
 import zgz.demo.test.models.ProductRequest;
 import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.models.ProductSlice;
+import zgz.demo.test.services.ProductPayloadCache;
+import zgz.demo.test.services.ProductPayloadCache.Payload;
 import zgz.demo.test.services.ProductServiceImpl;
+import zgz.demo.test.services.ProductVersions;
 
 @RestController
 @RequestMapping("/products")
@@ -29,41 +48,161 @@ import zgz.demo.test.services.ProductServiceImpl;
 @Tag(name = "Products", description = "CRUD operations for products")
 public class ProductController {
 
+    // Set on filtered results: true when more products matched than `limit` let through
+    public static final String TRUNCATED_HEADER = "X-Result-Truncated";
+
     private final ProductServiceImpl productService;
     private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+    private final ProductVersions productVersions;
+    private final ProductPayloadCache payloadCache;
 
     @GetMapping
     @Operation(
             summary = "Get all products",
-            description = "Returns the full list of products"
+            description = "Returns the full list of products, or the products matching the optional category / price filters "
+                    + "(at most `limit`, sorted by `sort`; `X-Result-Truncated: true` when more matched), "
+                    + "as JSON, CBOR or Smile per the Accept header. "
+                    + "Supports conditional requests via ETag / If-None-Match"
     )
-    @ApiResponse(responseCode = "200", description = "Products returned successfully",
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Products returned successfully",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductResponse.class)),
+                            @Content(mediaType = "application/cbor"),
+                            @Content(mediaType = "application/x-jackson-smile")
+                    }),
+            @ApiResponse(responseCode = "304", description = "Products unchanged since the given ETag", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Unsupported sort", content = @Content)
+    })
+    public ResponseEntity<?> getAll(
+            @Parameter(description = "Category name", example = "electronics")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Minimum price (inclusive)", example = "10.00")
+            @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price (inclusive)", example = "500.00")
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Sort: `id` or `price`, optionally followed by `,asc` / `,desc`", example = "price,desc")
+            @RequestParam(required = false) String sort,
+            @Parameter(description = "Maximum number of filtered results (max " + ProductServiceImpl.MAX_PAGE_SIZE + ")", example = "100")
+            @RequestParam(defaultValue = "" + ProductServiceImpl.MAX_PAGE_SIZE) int limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest
+    ) {
+        WireFormat format = WireFormat.negotiate(accept);
+        ProductFilter filter = new ProductFilter(category, minPrice, maxPrice, sort);
+        if (filter.isEmpty()) {
+            return payload(payloadCache.all(productVersions.allGeneration(), format), format,
+                    acceptsGzip(acceptEncoding), webRequest);
+        }
+        ProductSlice slice = productService.findFiltered(filter, limit);
+        // The server never compresses a response carrying a strong ETag, so filtered results are identity only
+        String tag = format.etag(ProductVersions.etag(slice.items(), slice.truncated()), false);
+        if (webRequest.checkNotModified(tag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(tag)
+                .contentType(format.mediaType())
+                .varyBy(HttpHeaders.ACCEPT)
+                .header(TRUNCATED_HEADER, Boolean.toString(slice.truncated()))
+                .body(slice.items());
+    }
+
+    @GetMapping(params = {"limit", "!category", "!minPrice", "!maxPrice", "!sort"})
+    @Operation(
+            summary = "Get a page of products",
+            description = "Returns up to `limit` products with an ID greater than `after`, ordered by ID, plus the cursor for the next page"
+    )
+    @ApiResponse(responseCode = "200", description = "Page returned successfully",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductPage.class)))
+    public ResponseEntity<ProductPage> getPage(
+            @Parameter(description = "Cursor: last product ID of the previous page", example = "100")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size (max " + ProductServiceImpl.MAX_PAGE_SIZE + ")", example = "50")
+            @RequestParam int limit
+    ) {
+        return ResponseEntity.ok(productService.findPage(after, limit));
+    }
+
+    @GetMapping("/stream")
+    @Operation(
+            summary = "Stream all products",
+            description = "Writes the full product list as a JSON array incrementally, without materializing it in memory"
+    )
+    @ApiResponse(responseCode = "200", description = "Products streamed successfully",
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = ProductResponse.class)))
-    public ResponseEntity<List<ProductResponse>> getAll() {
-        return ResponseEntity.ok(productService.findAll());
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartArray();
+                productService.streamAll(product -> {
+                    try {
+                        generator.writeObject(product);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @GetMapping("/category/{category}")
     @Operation(
             summary = "Get products by category",
-            description = "Returns all products that belong to the specified category"
+            description = "Returns all products that belong to the specified category, as JSON, CBOR or Smile per the Accept header. "
+                    + "Supports conditional requests via ETag / If-None-Match"
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Products returned successfully",
-                    content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = ProductResponse.class))),
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductResponse.class)),
+                            @Content(mediaType = "application/cbor"),
+                            @Content(mediaType = "application/x-jackson-smile")
+                    }),
+            @ApiResponse(responseCode = "304", description = "Products unchanged since the given ETag", content = @Content),
             @ApiResponse(responseCode = "404", description = "No products found for the given category", content = @Content)
     })
-    public ResponseEntity<List<ProductResponse>> getByCategory(
+    public ResponseEntity<byte[]> getByCategory(
             @Parameter(description = "Category name", example = "electronics")
-            @PathVariable String category
+            @PathVariable String category,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest
     ) {
-        List<ProductResponse> products = productService.findByCategory(category);
-        return ResponseEntity.ok(products);
+        WireFormat format = WireFormat.negotiate(accept);
+        return payload(payloadCache.byCategory(category, productVersions.categoryGeneration(category), format),
+                format, acceptsGzip(acceptEncoding), webRequest);
     }
 
 
+    @GetMapping("/search")
+    @Operation(
+            summary = "Search products",
+            description = "Full-text search over name and description. Every word must match, as a whole word or as a prefix; results are ordered by relevance"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Matching products returned successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductResponse.class))),
+            @ApiResponse(responseCode = "503", description = "The search index is still being built", content = @Content)
+    })
+    public ResponseEntity<List<ProductResponse>> search(
+            @Parameter(description = "Search text", example = "gaming lap")
+            @RequestParam("q") String query,
+            @Parameter(description = "Maximum number of results (max " + ProductServiceImpl.MAX_SEARCH_RESULTS + ")", example = "20")
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(productService.search(query, limit));
+    }
+
     @PostMapping
     @Operation(
             summary = "Create a new product",
@@ -92,14 +231,39 @@ public class ProductController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ProductResponse.class))),
             @ApiResponse(responseCode = "400", description = "Validation error", content = @Content),
-            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Product changed since the version in If-Match", content = @Content)
     })
     public ResponseEntity<ProductResponse> update(
             @Parameter(description = "Product ID", example = "1") @PathVariable Long id,
+            @Parameter(description = "Version the change is based on, as returned in `version` / ETag", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ProductRequest request
     ) {
-        ProductResponse update = productService.update(id, request);
-        return ResponseEntity.ok(update);
+        ProductResponse update = productService.update(id, request, expectedVersion(ifMatch));
+        return versioned(update);
+    }
+
+    @PatchMapping("/{id}")
+    @Operation(
+            summary = "Partially update a product by ID",
+            description = "Updates only the fields present (non-null) in the request body"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Product updated",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Product changed since the version in If-Match", content = @Content)
+    })
+    public ResponseEntity<ProductResponse> patch(
+            @Parameter(description = "Product ID", example = "1") @PathVariable Long id,
+            @Parameter(description = "Version the change is based on, as returned in `version` / ETag", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody ProductRequest request
+    ) {
+        ProductResponse patched = productService.patch(id, request, expectedVersion(ifMatch));
+        return versioned(patched);
     }
 
     @DeleteMapping("/{id}")
@@ -116,4 +280,81 @@ public class ProductController {
         productService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    // "*" or no header: unconditional write
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("If-Match must be a product version");
+        }
+    }
+
+    private static ResponseEntity<ProductResponse> versioned(ProductResponse product) {
+        if (product.version() == null) {
+            return ResponseEntity.ok(product);
+        }
+        return ResponseEntity.ok().eTag(product.version().toString()).body(product);
+    }
+
+    // Pre-encoded bytes go to the response as they are, skipping Jackson altogether. The tag names the
+    // encoding the client accepts; whether a body is big enough to be gzipped follows from the data
+    // the tag stands for, so one tag still maps to one byte sequence. A cached payload answers a
+    // matching If-None-Match without touching the data at all
+    private static ResponseEntity<byte[]> payload(Payload payload, WireFormat format, boolean gzip,
+                                                  WebRequest webRequest) {
+        String tag = format.etag(payload.etag(), gzip);
+        if (webRequest.checkNotModified(tag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(tag)
+                .contentType(payload.contentType())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip && payload.gzip() != null) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+        }
+        return response.body(payload.body());
+    }
+
+    // "gzip;q=0" refuses gzip, and "*" covers it unless gzip is listed on its own
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = quality(parts) > 0;
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                return accepted;
+            }
+            if (name.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
 }
@@ -0,0 +1,74 @@
+package zgz.demo.test.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import zgz.demo.test.models.IngestStatus;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.services.ProductIngestService;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/products/ingest")
+@RequiredArgsConstructor
+@Validated
+@ConditionalOnProperty(name = "products.ingest.enabled", havingValue = "true")
+@Tag(name = "Products", description = "CRUD operations for products")
+public class ProductIngestController {
+
+    private final ProductIngestService ingestService;
+
+    @PostMapping
+    @Operation(
+            summary = "Queue a product for creation",
+            description = "Validates the product and queues it for a batched write. Poll the returned location for the outcome"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Product queued",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = IngestStatus.class))),
+            @ApiResponse(responseCode = "400", description = "Validation error", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Queue full, retry later", content = @Content),
+            @ApiResponse(responseCode = "503", description = "The product could not be staged, retry later", content = @Content)
+    })
+    public ResponseEntity<IngestStatus> ingest(@Valid @RequestBody ProductRequest request) {
+        return ingestService.submit(request)
+                .map(trackingId -> ResponseEntity.accepted()
+                        .location(URI.create("/products/ingest/" + trackingId))
+                        .body(IngestStatus.pending(trackingId)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+    }
+
+    @GetMapping("/{trackingId}")
+    @Operation(
+            summary = "Get the outcome of a queued product",
+            description = "Returns PENDING until the product is written, then CREATED with its ID or FAILED with the reason"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Status returned",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = IngestStatus.class))),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired tracking ID", content = @Content)
+    })
+    public ResponseEntity<IngestStatus> status(
+            @Parameter(description = "Tracking ID returned when queuing", example = "m1abc-42") @PathVariable String trackingId) {
+        return ingestService.status(trackingId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,58 @@
+package zgz.demo.test.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.services.ProductReactiveService;
+
+/**
+ * Streaming variants of the product reads, selected by the Accept header
+ * (application/x-ndjson or text/event-stream); plain JSON requests keep going to {@link ProductController}.
+ */
+@RestController
+@RequestMapping("/products")
+@RequiredArgsConstructor
+@Tag(name = "Products", description = "CRUD operations for products")
+public class ProductReactiveController {
+
+    private final ProductReactiveService reactiveService;
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @Operation(
+            summary = "Stream all products",
+            description = "Streams every product as NDJSON or server-sent events, honouring client backpressure"
+    )
+    @ApiResponse(responseCode = "200", description = "Products streamed successfully",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = ProductResponse.class)))
+    public Flux<ProductResponse> streamAll() {
+        return reactiveService.findAll();
+    }
+
+    @GetMapping(value = "/category/{category}",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @Operation(
+            summary = "Stream products by category",
+            description = "Streams the products of a category as NDJSON or server-sent events, honouring client backpressure"
+    )
+    @ApiResponse(responseCode = "200", description = "Products streamed successfully",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = ProductResponse.class)))
+    public Flux<ProductResponse> streamByCategory(
+            @Parameter(description = "Category name", example = "electronics")
+            @PathVariable String category
+    ) {
+        return reactiveService.findByCategory(category);
+    }
+}
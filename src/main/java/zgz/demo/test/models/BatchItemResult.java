@@ -0,0 +1,15 @@
+package zgz.demo.test.models;
+
+public record BatchItemResult(
+        int index,
+        Long id,
+        Status status,
+        String error
+) {
+
+    public enum Status { CREATED, UPDATED, DELETED, NOT_FOUND, FAILED }
+
+    public boolean succeeded() {
+        return status == Status.CREATED || status == Status.UPDATED || status == Status.DELETED;
+    }
+}
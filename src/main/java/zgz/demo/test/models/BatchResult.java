@@ -0,0 +1,15 @@
+package zgz.demo.test.models;
+
+import java.util.List;
+
+public record BatchResult(
+        int succeeded,
+        int failed,
+        List<BatchItemResult> items
+) {
+
+    public static BatchResult of(List<BatchItemResult> items) {
+        int succeeded = (int) items.stream().filter(BatchItemResult::succeeded).count();
+        return new BatchResult(succeeded, items.size() - succeeded, items);
+    }
+}
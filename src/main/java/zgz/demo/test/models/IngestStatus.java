@@ -0,0 +1,18 @@
+package zgz.demo.test.models;
+
+/**
+ * Outcome of an asynchronously ingested product; {@code productId} is set once it is CREATED.
+ */
+public record IngestStatus(
+        String trackingId,
+        State state,
+        Long productId,
+        String error
+) {
+
+    public enum State { PENDING, CREATED, FAILED }
+
+    public static IngestStatus pending(String trackingId) {
+        return new IngestStatus(trackingId, State.PENDING, null, null);
+    }
+}
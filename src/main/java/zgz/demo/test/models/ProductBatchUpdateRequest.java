@@ -0,0 +1,11 @@
+package zgz.demo.test.models;
+
+import java.math.BigDecimal;
+
+public record ProductBatchUpdateRequest(
+        Long id,
+        String name,
+        String description,
+        String category,
+        BigDecimal price
+) {}
@@ -0,0 +1,17 @@
+package zgz.demo.test.models;
+
+import zgz.demo.test.models.ProductChangedEvent.ChangeType;
+
+import java.time.Instant;
+
+/**
+ * Change feed entry. {@code product} is the state after the change, null for deletions.
+ */
+public record ProductChange(
+        Long seq,
+        ChangeType type,
+        Long productId,
+        ProductResponse product,
+        Instant changedAt
+) {
+}
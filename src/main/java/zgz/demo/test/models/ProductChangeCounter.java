@@ -0,0 +1,34 @@
+package zgz.demo.test.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Single row holding the last commit sequence handed out to outbox rows. Its row lock is what
+ * serializes sequencing runs across threads and nodes.
+ */
+@Entity
+@Table(name = "product_change_counter")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeCounter {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "last_commit_seq", nullable = false)
+    private Long lastCommitSeq;
+
+}
@@ -0,0 +1,78 @@
+package zgz.demo.test.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import zgz.demo.test.models.ProductChangedEvent.ChangeType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Outbox row written in the same transaction as the product change it describes. The product
+ * columns hold the state after the change and are null for deletions; {@code node} is the
+ * instance that wrote it. {@code commitSeq} is the row's place in the feed, null until
+ * {@code ProductChangeSequencer} has seen it committed.
+ */
+@Entity
+@Table(name = "product_changes", indexes = {
+        @Index(name = "idx_product_changes_changed_at", columnList = "changed_at, seq"),
+        @Index(name = "idx_product_changes_commit_seq", columnList = "commit_seq", unique = true)
+})
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_changes_seq")
+    @SequenceGenerator(name = "product_changes_seq", sequenceName = "product_changes_seq", allocationSize = 50)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ChangeType type;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    private String name;
+
+    private String description;
+
+    private String category;
+
+    private BigDecimal price;
+
+    private Long version;
+
+    @Column(name = "previous_category")
+    private String previousCategory;
+
+    // Stamped by the database so every node's rows share one clock
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "changed_at", nullable = false, insertable = false, updatable = false)
+    private Instant changedAt;
+
+    @Column(length = 64)
+    private String node;
+
+    @Column(name = "commit_seq")
+    private Long commitSeq;
+
+}
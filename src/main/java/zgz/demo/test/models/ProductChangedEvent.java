@@ -0,0 +1,21 @@
+package zgz.demo.test.models;
+
+/**
+ * Published by the product service after every write. {@code previous} is null for creations
+ * and when the state before the change is unknown; {@code current} is null for deletions.
+ * {@code remote} marks a change another node committed, replayed here by the invalidation bus.
+ */
+public record ProductChangedEvent(
+        ChangeType type,
+        Long id,
+        ProductResponse previous,
+        ProductResponse current,
+        boolean remote
+) {
+
+    public ProductChangedEvent(ChangeType type, Long id, ProductResponse previous, ProductResponse current) {
+        this(type, id, previous, current, false);
+    }
+
+    public enum ChangeType { CREATED, UPDATED, DELETED }
+}
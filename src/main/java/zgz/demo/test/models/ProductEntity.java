@@ -5,7 +5,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -15,7 +18,11 @@ import lombok.ToString;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category_id", columnList = "category, id"),
+        @Index(name = "idx_products_category_price", columnList = "category, price"),
+        @Index(name = "idx_products_price", columnList = "price")
+})
 @Getter
 @Setter
 @ToString
@@ -23,8 +30,11 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class ProductEntity {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -37,4 +47,8 @@ public class ProductEntity {
     @Column(nullable = false)
     private BigDecimal price;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
 }
@@ -0,0 +1,15 @@
+package zgz.demo.test.models;
+
+import java.math.BigDecimal;
+
+public record ProductFilter(
+        String category,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        String sort
+) {
+
+    public boolean isEmpty() {
+        return category == null && minPrice == null && maxPrice == null && sort == null;
+    }
+}
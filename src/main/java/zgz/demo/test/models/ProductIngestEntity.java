@@ -0,0 +1,49 @@
+package zgz.demo.test.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * A product accepted for ingestion but not yet written. The row is deleted in the transaction that
+ * creates the product.
+ */
+@Entity
+@Table(name = "product_ingest")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductIngestEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_ingest_seq")
+    @SequenceGenerator(name = "product_ingest_seq", sequenceName = "product_ingest_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "tracking_id", nullable = false, length = 64)
+    private String trackingId;
+
+    @Column(nullable = false)
+    private String name;
+
+    private String description;
+
+    private String category;
+
+    @Column(nullable = false)
+    private BigDecimal price;
+
+}
@@ -0,0 +1,8 @@
+package zgz.demo.test.models;
+
+import java.util.List;
+
+public record ProductPage(
+        List<ProductResponse> items,
+        Long nextCursor
+) {}
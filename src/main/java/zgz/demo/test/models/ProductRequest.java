@@ -1,11 +1,19 @@
 package zgz.demo.test.models;
 
 
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
 import java.math.BigDecimal;
 
+/**
+ * Constraints apply where the request is {@code @Valid} (create, full update, ingest); a PATCH body
+ * carries only the fields it changes.
+ */
 public record ProductRequest(
-        String name,
+        @NotBlank String name,
         String description,
         String category,
-        BigDecimal price
+        @NotNull @PositiveOrZero BigDecimal price
 ) {}
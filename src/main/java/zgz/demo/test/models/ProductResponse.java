@@ -2,10 +2,20 @@ package zgz.demo.test.models;
 
 import java.math.BigDecimal;
 
+/**
+ * {@code version} is the optimistic-lock version to send back as {@code If-Match}; null when the
+ * response was built without reading it.
+ */
 public record ProductResponse(
         Long id,
         String name,
         String description,
         String category,
-        BigDecimal price
-) {}
+        BigDecimal price,
+        Long version
+) {
+
+    public ProductResponse(Long id, String name, String description, String category, BigDecimal price) {
+        this(id, name, description, category, price, null);
+    }
+}
@@ -0,0 +1,25 @@
+package zgz.demo.test.models;
+
+import java.math.BigDecimal;
+
+/**
+ * A products row as a native query returns it, e.g. the pre-image an UPDATE hands back.
+ */
+public interface ProductRow {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    String getCategory();
+
+    BigDecimal getPrice();
+
+    Long getVersion();
+
+    default ProductResponse toResponse() {
+        return new ProductResponse(getId(), getName(), getDescription(), getCategory(), getPrice(), getVersion());
+    }
+}
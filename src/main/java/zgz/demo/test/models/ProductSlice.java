@@ -0,0 +1,11 @@
+package zgz.demo.test.models;
+
+import java.util.List;
+
+/**
+ * The first products of a result that may hold more; {@code truncated} says whether it does.
+ */
+public record ProductSlice(
+        List<ProductResponse> items,
+        boolean truncated
+) {}
@@ -0,0 +1,20 @@
+package zgz.demo.test.repositories;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import zgz.demo.test.models.ProductChangeCounter;
+
+import java.util.Optional;
+
+@Repository
+public interface ProductChangeCounterRepository extends JpaRepository<ProductChangeCounter, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from ProductChangeCounter c where c.id = :id")
+    Optional<ProductChangeCounter> findForUpdate(@Param("id") Integer id);
+
+}
@@ -0,0 +1,46 @@
+package zgz.demo.test.repositories;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import zgz.demo.test.models.ProductChangeEntity;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChangeEntity, Long> {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<ProductChangeEntity> findByCommitSeqGreaterThanOrderByCommitSeqAsc(Long commitSeq, Limit limit);
+
+    boolean existsByCommitSeqIsNull();
+
+    List<ProductChangeEntity> findByCommitSeqIsNullOrderBySeqAsc(Limit limit);
+
+    @Query("select min(c.commitSeq) from ProductChangeEntity c")
+    Long findOldestCommitSeq();
+
+    // Deletes a prefix of the feed, up to the newest sequenced row older than the cutoff: changed_at is
+    // stamped at insert and commit_seq after commit, so cutting by time alone could drop a change while
+    // keeping an earlier one. Unsequenced rows are never pruned: no consumer has seen them yet
+    @Modifying
+    @Query("delete from ProductChangeEntity c where c.commitSeq <= (select max(o.commitSeq) "
+            + "from ProductChangeEntity o where o.commitSeq is not null and o.changedAt < :cutoff)")
+    int deleteSequencePrefixBefore(@Param("cutoff") Instant cutoff);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select c from ProductChangeEntity c "
+            + "where c.commitSeq > :after and (c.node is null or c.node <> :node) "
+            + "order by c.commitSeq")
+    List<ProductChangeEntity> findForeignChanges(@Param("after") Long afterCommitSeq,
+                                                 @Param("node") String node,
+                                                 Limit limit);
+
+}
@@ -0,0 +1,23 @@
+package zgz.demo.test.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import zgz.demo.test.models.ProductIngestEntity;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductIngestRepository extends JpaRepository<ProductIngestEntity, Long> {
+
+    List<ProductIngestEntity> findAllByOrderByIdAsc();
+
+    // Blocks on rows another transaction is deleting, then counts only those it removed itself
+    @Modifying
+    @Query("delete from ProductIngestEntity i where i.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+}
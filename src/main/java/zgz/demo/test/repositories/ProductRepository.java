@@ -1,14 +1,97 @@
 package zgz.demo.test.repositories;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import zgz.demo.test.models.ProductEntity;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.models.ProductRow;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
+public interface ProductRepository extends JpaRepository<ProductEntity, Long>, JpaSpecificationExecutor<ProductEntity>,
+        ProductRepositoryCustom {
 
     List<ProductEntity> findByCategory(String category);
 
+    // Projection straight into the response record: no managed entities, no dirty checking
+    @Query("select new zgz.demo.test.models.ProductResponse(p.id, p.name, p.description, p.category, p.price, p.version) "
+            + "from ProductEntity p where p.category = :category order by p.id")
+    List<ProductResponse> findResponsesByCategory(@Param("category") String category);
+
+    @Query("select new zgz.demo.test.models.ProductResponse(p.id, p.name, p.description, p.category, p.price, p.version) "
+            + "from ProductEntity p where p.id = :id")
+    Optional<ProductResponse> findResponseById(@Param("id") Long id);
+
+    // Single statement: H2's data change delta table hands back the row as it was before the UPDATE
+    // (RETURNING on PostgreSQL), so a blind write never reads it first and still knows what it replaced;
+    // empty when the product does not exist
+    @Transactional
+    @Query(value = "select id, name, description, category, price, version from old table (update products "
+            + "set name = :name, description = :description, category = :category, price = :price, "
+            + "version = version + 1 where id = :id)", nativeQuery = true)
+    Optional<ProductRow> updateByIdReturningPrevious(@Param("id") Long id,
+                                                     @Param("name") String name,
+                                                     @Param("description") String description,
+                                                     @Param("category") String category,
+                                                     @Param("price") BigDecimal price);
+
+    // Compare-and-set on the version, returning the replaced row: empty when the product is missing or
+    // was changed meanwhile
+    @Transactional
+    @Query(value = "select id, name, description, category, price, version from old table (update products "
+            + "set name = :name, description = :description, category = :category, price = :price, "
+            + "version = version + 1 where id = :id and version = :version)", nativeQuery = true)
+    Optional<ProductRow> updateByIdAndVersionReturningPrevious(@Param("id") Long id,
+                                                               @Param("name") String name,
+                                                               @Param("description") String description,
+                                                               @Param("category") String category,
+                                                               @Param("price") BigDecimal price,
+                                                               @Param("version") Long version);
+
+    // Row lock for writes whose statement cannot hand back the pre-image itself
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from ProductEntity p where p.id = :id")
+    Optional<ProductEntity> findForUpdateById(@Param("id") Long id);
+
+    List<ProductEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("select new zgz.demo.test.models.ProductResponse(p.id, p.name, p.description, p.category, p.price, p.version) "
+            + "from ProductEntity p where p.category = :category and p.id > :after order by p.id")
+    List<ProductResponse> findResponsesByCategoryAfter(@Param("category") String category,
+                                                       @Param("after") Long after,
+                                                       Pageable pageable);
+
+    // Read-only, fetch-size bounded cursor; callers must close the stream inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from ProductEntity p order by p.id")
+    Stream<ProductEntity> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new zgz.demo.test.models.ProductResponse(p.id, p.name, p.description, p.category, p.price, p.version) "
+            + "from ProductEntity p order by p.id")
+    Stream<ProductResponse> streamAllResponses();
+
+    @Query("select new zgz.demo.test.models.ProductResponse(p.id, p.name, p.description, p.category, p.price, p.version) "
+            + "from ProductEntity p where p.id in :ids")
+    List<ProductResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
 }
@@ -0,0 +1,15 @@
+package zgz.demo.test.repositories;
+
+import zgz.demo.test.models.ProductRequest;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Writes only the non-null fields of {@code changes} in a single UPDATE statement and bumps the
+     * version.
+     *
+     * @param expectedVersion when not null, the update only applies while the row is at this version
+     * @return the number of affected rows (0 when the product does not exist or is at another version)
+     */
+    int patchById(Long id, ProductRequest changes, Long expectedVersion);
+}
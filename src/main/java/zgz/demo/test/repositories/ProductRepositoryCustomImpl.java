@@ -0,0 +1,62 @@
+package zgz.demo.test.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
+import zgz.demo.test.models.ProductEntity;
+import zgz.demo.test.models.ProductRequest;
+
+@RequiredArgsConstructor
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int patchById(Long id, ProductRequest changes, Long expectedVersion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<ProductEntity> update = cb.createCriteriaUpdate(ProductEntity.class);
+        Root<ProductEntity> root = update.from(ProductEntity.class);
+
+        boolean changed = false;
+        if (changes.name() != null) {
+            update.set(root.<String>get("name"), changes.name());
+            changed = true;
+        }
+        if (changes.description() != null) {
+            update.set(root.<String>get("description"), changes.description());
+            changed = true;
+        }
+        if (changes.category() != null) {
+            update.set(root.<String>get("category"), changes.category());
+            changed = true;
+        }
+        if (changes.price() != null) {
+            update.set(root.get("price"), changes.price());
+            changed = true;
+        }
+
+        if (!changed) {
+            CriteriaQuery<Long> count = cb.createQuery(Long.class);
+            Root<ProductEntity> product = count.from(ProductEntity.class);
+            count.select(cb.count(product)).where(expectedVersion == null
+                    ? cb.equal(product.get("id"), id)
+                    : cb.and(cb.equal(product.get("id"), id), cb.equal(product.get("version"), expectedVersion)));
+            return entityManager.createQuery(count).getSingleResult().intValue();
+        }
+
+        Path<Long> version = root.get("version");
+        update.set(version, cb.sum(version, 1L));
+        update.where(expectedVersion == null
+                ? cb.equal(root.get("id"), id)
+                : cb.and(cb.equal(root.get("id"), id), cb.equal(version, expectedVersion)));
+        int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+}
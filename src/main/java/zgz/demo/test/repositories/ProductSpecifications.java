@@ -0,0 +1,36 @@
+package zgz.demo.test.repositories;
+
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import zgz.demo.test.models.ProductEntity;
+import zgz.demo.test.models.ProductFilter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * Category equality plus price range: served by idx_products_category_price when a category is
+     * given and by idx_products_price otherwise.
+     */
+    public static Specification<ProductEntity> matching(ProductFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>(3);
+            if (filter.category() != null) {
+                predicates.add(cb.equal(root.get("category"), filter.category()));
+            }
+            if (filter.minPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<BigDecimal>get("price"), filter.minPrice()));
+            }
+            if (filter.maxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<BigDecimal>get("price"), filter.maxPrice()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
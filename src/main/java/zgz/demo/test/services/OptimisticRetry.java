@@ -0,0 +1,57 @@
+package zgz.demo.test.services;
+
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry for internal read-modify-write callers that lose a version race. Each attempt must
+ * re-read what it modifies. Backoff is jittered so colliding writers do not retry in lockstep.
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+
+    private final int maxAttempts;
+    private final long backoffNanos;
+
+    public OptimisticRetry(@Value("${products.concurrency.max-attempts:5}") int maxAttempts,
+                           @Value("${products.concurrency.backoff:5ms}") Duration backoff) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffNanos = backoff.toNanos();
+    }
+
+    /**
+     * @throws OptimisticLockingFailureException when every attempt conflicted
+     */
+    public <T> T execute(Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                // The JPA flavour escapes untranslated from explicit EntityManager flushes
+                if (i == maxAttempts) {
+                    throw new OptimisticLockingFailureException("Gave up after " + maxAttempts + " conflicting attempts", e);
+                }
+                log.debug("Version conflict, attempt {} of {}", i, maxAttempts);
+                pause(i);
+            }
+        }
+    }
+
+    private void pause(int attempt) {
+        long nanos = ThreadLocalRandom.current().nextLong(backoffNanos * attempt + 1);
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticLockingFailureException("Interrupted while retrying", e);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package zgz.demo.test.services;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import zgz.demo.test.mappers.ProductMapper;
+import zgz.demo.test.models.BatchItemResult;
+import zgz.demo.test.models.BatchItemResult.Status;
+import zgz.demo.test.models.BatchResult;
+import zgz.demo.test.models.ProductBatchUpdateRequest;
+import zgz.demo.test.models.ProductChangedEvent;
+import zgz.demo.test.models.ProductChangedEvent.ChangeType;
+import zgz.demo.test.models.ProductEntity;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.repositories.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk writes: every chunk of {@code products.batch.chunk-size} items is persisted in its own
+ * transaction and flushed as JDBC batches, so a failing chunk never rolls back the others.
+ */
+@Slf4j
+@Service
+public class ProductBatchService {
+
+    private final ProductRepository repository;
+    private final ProductMapper mapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OptimisticRetry retry;
+    private final int chunkSize;
+
+    public ProductBatchService(ProductRepository repository,
+                               ProductMapper mapper,
+                               EntityManager entityManager,
+                               TransactionTemplate transactionTemplate,
+                               ApplicationEventPublisher eventPublisher,
+                               OptimisticRetry retry,
+                               @Value("${products.batch.chunk-size:500}") int chunkSize) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.retry = retry;
+        this.chunkSize = chunkSize;
+    }
+
+    public BatchResult createAll(List<ProductRequest> requests) {
+        return inChunks(requests, this::createChunk);
+    }
+
+    public BatchResult updateAll(List<ProductBatchUpdateRequest> requests) {
+        return inChunks(requests, this::updateChunk);
+    }
+
+    public BatchResult deleteAll(List<Long> ids) {
+        return inChunks(ids, this::deleteChunk);
+    }
+
+    private List<BatchItemResult> createChunk(List<ProductRequest> chunk, int offset) {
+        List<BatchItemResult> results = new ArrayList<>(chunk.size());
+        List<ProductEntity> entities = new ArrayList<>(chunk.size());
+        List<Integer> indexes = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            ProductRequest request = chunk.get(i);
+            if (request == null || request.name() == null || request.price() == null) {
+                results.add(invalid(offset + i, null));
+                continue;
+            }
+            entities.add(mapper.toEntity(request));
+            indexes.add(offset + i);
+        }
+        return execute(results, indexes, () -> {
+            repository.saveAll(entities);
+            flushAndClear();
+            List<BatchItemResult> created = new ArrayList<>(entities.size());
+            for (int i = 0; i < entities.size(); i++) {
+                ProductEntity entity = entities.get(i);
+                publish(ChangeType.CREATED, entity.getId(), null, mapper.toResponse(entity));
+                created.add(new BatchItemResult(indexes.get(i), entity.getId(), Status.CREATED, null));
+            }
+            return created;
+        });
+    }
+
+    private List<BatchItemResult> updateChunk(List<ProductBatchUpdateRequest> chunk, int offset) {
+        List<BatchItemResult> results = new ArrayList<>(chunk.size());
+        List<Integer> indexes = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            ProductBatchUpdateRequest request = chunk.get(i);
+            if (request == null || request.id() == null || request.name() == null || request.price() == null) {
+                results.add(invalid(offset + i, request == null ? null : request.id()));
+                continue;
+            }
+            indexes.add(offset + i);
+        }
+        return execute(results, indexes, () -> {
+            Map<Long, ProductEntity> existing = findAllById(indexes.stream()
+                    .map(index -> chunk.get(index - offset).id())
+                    .toList());
+            List<BatchItemResult> updated = new ArrayList<>(indexes.size());
+            List<ProductEntity> changed = new ArrayList<>(indexes.size());
+            List<ProductResponse> previous = new ArrayList<>(indexes.size());
+            for (Integer index : indexes) {
+                ProductBatchUpdateRequest request = chunk.get(index - offset);
+                ProductEntity entity = existing.get(request.id());
+                if (entity == null) {
+                    updated.add(new BatchItemResult(index, request.id(), Status.NOT_FOUND, null));
+                    continue;
+                }
+                previous.add(mapper.toResponse(entity));
+                entity.setName(request.name());
+                entity.setDescription(request.description());
+                entity.setCategory(request.category());
+                entity.setPrice(request.price());
+                changed.add(entity);
+                updated.add(new BatchItemResult(index, request.id(), Status.UPDATED, null));
+            }
+            // The flush runs the version checks and bumps the versions the events carry
+            flushAndClear();
+            for (int i = 0; i < changed.size(); i++) {
+                ProductEntity entity = changed.get(i);
+                publish(ChangeType.UPDATED, entity.getId(), previous.get(i), mapper.toResponse(entity));
+            }
+            return updated;
+        });
+    }
+
+    private List<BatchItemResult> deleteChunk(List<Long> chunk, int offset) {
+        List<BatchItemResult> results = new ArrayList<>(chunk.size());
+        List<Integer> indexes = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (chunk.get(i) == null) {
+                results.add(invalid(offset + i, null));
+                continue;
+            }
+            indexes.add(offset + i);
+        }
+        return execute(results, indexes, () -> {
+            Map<Long, ProductEntity> existing = findAllById(indexes.stream()
+                    .map(index -> chunk.get(index - offset))
+                    .toList());
+            repository.deleteAllInBatch(existing.values());
+            List<BatchItemResult> deleted = new ArrayList<>(indexes.size());
+            for (Integer index : indexes) {
+                Long id = chunk.get(index - offset);
+                ProductEntity entity = existing.remove(id);
+                if (entity == null) {
+                    deleted.add(new BatchItemResult(index, id, Status.NOT_FOUND, null));
+                    continue;
+                }
+                publish(ChangeType.DELETED, id, mapper.toResponse(entity), null);
+                deleted.add(new BatchItemResult(index, id, Status.DELETED, null));
+            }
+            entityManager.clear();
+            return deleted;
+        });
+    }
+
+    private <T> BatchResult inChunks(List<T> items, ChunkWriter<T> writer) {
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, items.size());
+            results.addAll(writer.write(items.subList(from, to), from));
+        }
+        results.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        return BatchResult.of(results);
+    }
+
+    private List<BatchItemResult> execute(List<BatchItemResult> results,
+                                          List<Integer> indexes,
+                                          Supplier<List<BatchItemResult>> work) {
+        if (indexes.isEmpty()) {
+            return results;
+        }
+        try {
+            // A chunk that lost a version race to a concurrent writer is re-read and re-applied
+            results.addAll(Objects.requireNonNull(retry.execute(() -> transactionTemplate.execute(status -> work.get()))));
+        } catch (RuntimeException e) {
+            log.warn("Batch chunk of {} items failed: {}", indexes.size(), e.getMessage());
+            indexes.forEach(index -> results.add(new BatchItemResult(index, null, Status.FAILED, e.getMessage())));
+        }
+        return results;
+    }
+
+    private Map<Long, ProductEntity> findAllById(List<Long> ids) {
+        return repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ProductEntity::getId, Function.identity()));
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void publish(ChangeType type, Long id, ProductResponse previous, ProductResponse current) {
+        eventPublisher.publishEvent(new ProductChangedEvent(type, id, previous, current));
+    }
+
+    private static BatchItemResult invalid(int index, Long id) {
+        return new BatchItemResult(index, id, Status.FAILED, "Missing required fields");
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        List<BatchItemResult> write(List<T> chunk, int offset);
+    }
+}
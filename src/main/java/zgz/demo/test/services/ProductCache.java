@@ -0,0 +1,106 @@
+package zgz.demo.test.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import zgz.demo.test.config.CacheConfig;
+import zgz.demo.test.models.ProductChangedEvent;
+import zgz.demo.test.models.ProductResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Per-node read cache. A miss goes through a single flight first, so concurrent identical misses
+ * share one query even when the cache cannot hold the result (zero TTL, lists over the weight
+ * bound). Flights are forgotten together with the entries, before the ETags move, so a caller
+ * holding a new ETag never joins a load that started before the change, and a load whose flight
+ * was forgotten while it ran does not keep what it read.
+ */
+@Component
+public class ProductCache {
+
+    private static final String ALL_KEY = "all";
+
+    private final Cache all;
+    private final Cache byCategory;
+    private final SingleFlight<String, List<ProductResponse>> allFlight;
+    private final SingleFlight<String, List<ProductResponse>> categoryFlights;
+
+    public ProductCache(CacheManager cacheManager,
+                        @Value("${products.cache.single-flight-timeout:5s}") Duration singleFlightTimeout) {
+        this.all = cacheManager.getCache(CacheConfig.PRODUCTS);
+        this.byCategory = cacheManager.getCache(CacheConfig.PRODUCTS_BY_CATEGORY);
+        this.allFlight = new SingleFlight<>(singleFlightTimeout);
+        this.categoryFlights = new SingleFlight<>(singleFlightTimeout);
+    }
+
+    public List<ProductResponse> getAll(Supplier<List<ProductResponse>> loader) {
+        List<ProductResponse> cached = peek(all, ALL_KEY);
+        if (cached != null) {
+            return cached;
+        }
+        return allFlight.executeTracked(ALL_KEY, forgotten -> load(all, ALL_KEY, loader, forgotten));
+    }
+
+    public List<ProductResponse> getByCategory(String category, Supplier<List<ProductResponse>> loader) {
+        List<ProductResponse> cached = peek(byCategory, category);
+        if (cached != null) {
+            return cached;
+        }
+        return categoryFlights.executeTracked(category, forgotten -> load(byCategory, category, loader, forgotten));
+    }
+
+    // Runs after commit so readers can never re-populate an entry with uncommitted state, after the
+    // snapshot store has the change so a reload from it sees the change, and before the ETags move
+    // so a new tag is never served from stale entries
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Flights are forgotten before their entries are evicted; see load
+        allFlight.forgetAll();
+        all.evict(ALL_KEY);
+        if (event.current() != null) {
+            evictCategory(event.current().category());
+        }
+        if (event.previous() != null) {
+            evictCategory(event.previous().category());
+        } else if (event.type() != ProductChangedEvent.ChangeType.CREATED) {
+            categoryFlights.forgetAll();
+            byCategory.clear();
+        }
+    }
+
+    private void evictCategory(String category) {
+        if (category != null) {
+            categoryFlights.forget(category);
+            byCategory.evict(category);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ProductResponse> peek(Cache cache, String key) {
+        return cache.get(key, List.class);
+    }
+
+    // A query that began before a commit can finish after its eviction. The flight is forgotten before
+    // the entry is evicted, so a result is either dropped here or stored early enough to be evicted
+    private List<ProductResponse> load(Cache cache, Object key, Supplier<List<ProductResponse>> loader,
+                                       BooleanSupplier forgotten) {
+        List<ProductResponse> products = List.copyOf(loader.get());
+        if (forgotten.getAsBoolean()) {
+            return products;
+        }
+        cache.put(key, products);
+        if (forgotten.getAsBoolean()) {
+            cache.evict(key);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,148 @@
+package zgz.demo.test.services;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import zgz.demo.test.models.ProductChange;
+import zgz.demo.test.models.ProductChangeEntity;
+import zgz.demo.test.models.ProductChangedEvent;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.repositories.ProductChangeRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Transactional outbox behind the change feed. Every {@link ProductChangedEvent} is appended while
+ * the publishing transaction is still open, so a change and its feed entry commit or roll back
+ * together. Reads page through the outbox by commit sequence (see {@link ProductChangeSequencer}),
+ * one batch in memory at a time. Rows are tagged with this instance's node id so other nodes can
+ * tell their changes apart, and pruned once older than {@code products.changes.retention}.
+ */
+@Slf4j
+@Service
+public class ProductChangeFeed {
+
+    public static final int MAX_CHANGES = 100_000;
+
+    private final ProductChangeRepository repository;
+    private final ProductChangeSequencer sequencer;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int batchSize;
+    private final Duration retention;
+    private final String node;
+
+    public ProductChangeFeed(ProductChangeRepository repository,
+                             ProductChangeSequencer sequencer,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${products.changes.batch-size:500}") int batchSize,
+                             @Value("${products.changes.retention:7d}") Duration retention,
+                             @Value("${products.cluster.node-id:}") String node) {
+        this.repository = repository;
+        this.sequencer = sequencer;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.node = node.isBlank() ? UUID.randomUUID().toString() : node;
+    }
+
+    public String node() {
+        return node;
+    }
+
+    // Synchronous on purpose: runs inside the writer's transaction, unlike the after-commit listeners
+    @EventListener
+    public void append(ProductChangedEvent event) {
+        if (event.remote()) {
+            // Replayed from another node's row
+            return;
+        }
+        ProductResponse current = event.current();
+        ProductResponse previous = event.previous();
+        repository.save(new ProductChangeEntity(null, event.type(), event.id(),
+                current == null ? null : current.name(),
+                current == null ? null : current.description(),
+                current == null ? null : current.category(),
+                current == null ? null : current.price(),
+                current == null ? null : current.version(),
+                previous == null ? null : previous.category(),
+                null,
+                node,
+                null));
+    }
+
+    /**
+     * Feeds the changes after {@code since}, in commit order, to {@code consumer}. Commit sequences
+     * are gapless and only given to committed rows, so resuming from the last one received never
+     * skips a change, however long its transaction ran.
+     *
+     * @return the commit sequence to resume from
+     */
+    public long stream(long since, int limit, Consumer<ProductChange> consumer) {
+        sequencer.sequence();
+        int max = Math.max(1, Math.min(limit, MAX_CHANGES));
+        return readOnlyTransaction.execute(status -> {
+            int remaining = max;
+            long cursor = since;
+            while (remaining > 0) {
+                List<ProductChangeEntity> batch = repository.findByCommitSeqGreaterThanOrderByCommitSeqAsc(
+                        cursor, Limit.of(Math.min(batchSize, remaining)));
+                for (ProductChangeEntity change : batch) {
+                    consumer.accept(toChange(change));
+                    cursor = change.getCommitSeq();
+                }
+                // Keep the persistence context to one batch regardless of how far behind the consumer is
+                entityManager.clear();
+                remaining -= batch.size();
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+            return cursor;
+        });
+    }
+
+    /**
+     * Whether every change after {@code since} is still in the outbox. Commit sequences have no
+     * gaps, so a cursor more than one below the oldest retained row has missed pruned changes.
+     * {@code 0} always resumes, from the oldest change retained.
+     */
+    public boolean isRetained(long since) {
+        if (since == 0) {
+            return true;
+        }
+        Long oldest = repository.findOldestCommitSeq();
+        return oldest == null ? since >= sequencer.lastCommitSeq() : since >= oldest - 1;
+    }
+
+    @Scheduled(fixedDelayString = "${products.changes.prune-interval:1h}")
+    @Transactional
+    public void prune() {
+        int pruned = repository.deleteSequencePrefixBefore(Instant.now().minus(retention));
+        if (pruned > 0) {
+            log.info("Pruned {} product changes older than {}", pruned, retention);
+        }
+    }
+
+    private static ProductChange toChange(ProductChangeEntity change) {
+        ProductResponse product = change.getType() == ProductChangedEvent.ChangeType.DELETED
+                ? null
+                : new ProductResponse(change.getProductId(), change.getName(), change.getDescription(),
+                change.getCategory(), change.getPrice(), change.getVersion());
+        return new ProductChange(change.getCommitSeq(), change.getType(), change.getProductId(), product, change.getChangedAt());
+    }
+}
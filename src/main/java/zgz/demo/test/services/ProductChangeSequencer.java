@@ -0,0 +1,83 @@
+package zgz.demo.test.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import zgz.demo.test.models.ProductChangeCounter;
+import zgz.demo.test.models.ProductChangeEntity;
+import zgz.demo.test.repositories.ProductChangeCounterRepository;
+import zgz.demo.test.repositories.ProductChangeRepository;
+
+import java.util.List;
+
+/**
+ * Puts committed outbox rows in feed order. Row ids come from a pooled sequence drawn before commit,
+ * so they follow neither commit order nor, across nodes, time. A run takes the counter's row lock
+ * and numbers the rows that are committed but not yet numbered, continuing the counter without
+ * gaps. Runs are serialized and only see committed rows, so anything committed later is numbered
+ * after every row a consumer may already have passed.
+ */
+@Slf4j
+@Service
+public class ProductChangeSequencer {
+
+    private final ProductChangeRepository changeRepository;
+    private final ProductChangeCounterRepository counterRepository;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+
+    public ProductChangeSequencer(ProductChangeRepository changeRepository,
+                                  ProductChangeCounterRepository counterRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${products.changes.batch-size:500}") int batchSize) {
+        this.changeRepository = changeRepository;
+        this.counterRepository = counterRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        // Callers may be inside a read-only transaction; the numbering must commit on its own
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Numbers every committed, unnumbered row, one batch per transaction to keep the lock short.
+     */
+    public void sequence() {
+        try {
+            Integer numbered;
+            do {
+                numbered = transaction.execute(status -> sequenceBatch());
+            } while (numbered != null && numbered == batchSize);
+        } catch (PessimisticLockingFailureException | DataIntegrityViolationException e) {
+            // Another run holds the counter, or created it first; it numbers the same rows
+            log.debug("Outbox sequencing deferred: {}", e.getMessage());
+        }
+    }
+
+    private int sequenceBatch() {
+        if (!changeRepository.existsByCommitSeqIsNull()) {
+            return 0;
+        }
+        ProductChangeCounter counter = counterRepository.findForUpdate(ProductChangeCounter.ID)
+                .orElseGet(() -> counterRepository.saveAndFlush(new ProductChangeCounter(ProductChangeCounter.ID, 0L)));
+        // Read under the lock: rows numbered by the previous holder are committed and excluded
+        List<ProductChangeEntity> pending = changeRepository.findByCommitSeqIsNullOrderBySeqAsc(Limit.of(batchSize));
+        long next = counter.getLastCommitSeq();
+        for (ProductChangeEntity change : pending) {
+            change.setCommitSeq(++next);
+        }
+        counter.setLastCommitSeq(next);
+        return pending.size();
+    }
+
+    public long lastCommitSeq() {
+        return counterRepository.findById(ProductChangeCounter.ID)
+                .map(ProductChangeCounter::getLastCommitSeq)
+                .orElse(0L);
+    }
+}
@@ -0,0 +1,295 @@
+package zgz.demo.test.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import zgz.demo.test.config.exeptions.ServiceUnavailableException;
+import zgz.demo.test.models.BatchItemResult;
+import zgz.demo.test.models.BatchResult;
+import zgz.demo.test.models.IngestStatus;
+import zgz.demo.test.models.ProductIngestEntity;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.repositories.ProductIngestRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind creation. A submitted product is acknowledged only once it is durable: a stager
+ * thread inserts everything waiting into {@code product_ingest} with one batched insert and commit,
+ * then releases those callers. A single writer thread drains staged products through
+ * {@link ProductBatchService} in chunks of {@code products.ingest.batch-size}, deleting their staging
+ * rows in the same transaction. On start the staging table is replayed, so accepted items survive a
+ * crash; the delete decides which node writes a replayed row, so none is created twice.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "products.ingest.enabled", havingValue = "true")
+public class ProductIngestService implements SmartLifecycle {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ProductBatchService batchService;
+    private final ProductIngestRepository stagingRepository;
+    private final TransactionTemplate transaction;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration shutdownTimeout;
+    private final ConcurrentLinkedQueue<Ticket> incoming = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Staged> staged = new ConcurrentLinkedQueue<>();
+    // The queues' own size() is O(n); these counters are the bound and the stager's exit condition
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger unstaged = new AtomicInteger();
+    private final Cache<String, IngestStatus> statuses;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong trackingIds = new AtomicLong();
+    private volatile boolean accepting;
+    private volatile Thread stager;
+    private volatile Thread writer;
+
+    public ProductIngestService(ProductBatchService batchService,
+                                ProductIngestRepository stagingRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${products.ingest.capacity:100000}") int capacity,
+                                @Value("${products.ingest.batch-size:1000}") int batchSize,
+                                @Value("${products.ingest.status-ttl:10m}") Duration statusTtl,
+                                @Value("${products.ingest.max-statuses:500000}") long maxStatuses,
+                                @Value("${products.ingest.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.batchService = batchService;
+        this.stagingRepository = stagingRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.shutdownTimeout = shutdownTimeout;
+        // At the target submit rate the TTL alone would keep millions of statuses; evicted tracking
+        // ids report 404 like expired ones
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxStatuses)
+                .expireAfterWrite(statusTtl)
+                .build();
+    }
+
+    private record Ticket(String trackingId, ProductRequest request, CompletableFuture<Void> durable) {
+
+        ProductIngestEntity toEntity() {
+            return new ProductIngestEntity(null, trackingId, request.name(), request.description(),
+                    request.category(), request.price());
+        }
+    }
+
+    private record Staged(long stagingId, String trackingId, ProductRequest request) {
+
+        static Staged of(ProductIngestEntity row) {
+            return new Staged(row.getId(), row.getTrackingId(), new ProductRequest(row.getName(),
+                    row.getDescription(), row.getCategory(), row.getPrice()));
+        }
+    }
+
+    /**
+     * Blocks until the product is staged, which costs the caller one shared commit.
+     *
+     * @return the tracking id, or empty when the queue is full or shutting down
+     * @throws ServiceUnavailableException when staging failed, which is the database's doing and not backpressure
+     */
+    public Optional<String> submit(ProductRequest request) {
+        int size = queued.incrementAndGet();
+        unstaged.incrementAndGet();
+        // Checked after reserving the slot, so the stager cannot exit between check and offer
+        if (size > capacity || !accepting) {
+            unstaged.decrementAndGet();
+            queued.decrementAndGet();
+            return Optional.empty();
+        }
+        String trackingId = epoch + "-" + trackingIds.incrementAndGet();
+        statuses.put(trackingId, IngestStatus.pending(trackingId));
+        Ticket ticket = new Ticket(trackingId, request, new CompletableFuture<>());
+        incoming.offer(ticket);
+        LockSupport.unpark(stager);
+        try {
+            ticket.durable().join();
+        } catch (CompletionException e) {
+            throw new ServiceUnavailableException("The product could not be queued, retry later");
+        }
+        return Optional.of(trackingId);
+    }
+
+    public Optional<IngestStatus> status(String trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    public int queued() {
+        return queued.get();
+    }
+
+    @Override
+    public void start() {
+        // Whatever was acknowledged but not written before the last stop or crash goes first
+        List<ProductIngestEntity> recovered = transaction.execute(status -> stagingRepository.findAllByOrderByIdAsc());
+        if (!recovered.isEmpty()) {
+            log.info("Replaying {} staged ingest items", recovered.size());
+        }
+        for (ProductIngestEntity row : recovered) {
+            statuses.put(row.getTrackingId(), IngestStatus.pending(row.getTrackingId()));
+            staged.offer(Staged.of(row));
+        }
+        queued.addAndGet(recovered.size());
+        accepting = true;
+        stager = Thread.ofPlatform().name("product-ingest-stager").daemon().start(this::stage);
+        writer = Thread.ofPlatform().name("product-ingest-writer").daemon().start(this::drain);
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        try {
+            for (Thread thread : List.of(stager, writer)) {
+                LockSupport.unpark(thread);
+                long remaining = Math.max(deadline - System.nanoTime(), 1);
+                if (!thread.join(Duration.ofNanos(remaining))) {
+                    log.warn("Ingest still busy after {}, {} items stay staged for the next start",
+                            shutdownTimeout, queued.get());
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stager = null;
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    // Below the web server's phases: starts before requests arrive, stops after they are drained
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void stage() {
+        List<Ticket> batch = new ArrayList<>(batchSize);
+        while (accepting || unstaged.get() > 0) {
+            Ticket ticket;
+            while (batch.size() < batchSize && (ticket = incoming.poll()) != null) {
+                batch.add(ticket);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            unstaged.addAndGet(-batch.size());
+            stage(batch);
+            batch.clear();
+        }
+    }
+
+    private void stage(List<Ticket> batch) {
+        try {
+            List<ProductIngestEntity> rows = transaction.execute(status ->
+                    stagingRepository.saveAll(batch.stream().map(Ticket::toEntity).toList()));
+            for (int i = 0; i < batch.size(); i++) {
+                staged.offer(Staged.of(rows.get(i)));
+                batch.get(i).durable().complete(null);
+            }
+            LockSupport.unpark(writer);
+        } catch (RuntimeException e) {
+            log.warn("Staging {} ingest items failed: {}", batch.size(), e.getMessage());
+            queued.addAndGet(-batch.size());
+            for (Ticket ticket : batch) {
+                statuses.invalidate(ticket.trackingId());
+                ticket.durable().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void drain() {
+        List<Staged> batch = new ArrayList<>(batchSize);
+        while (accepting || queued.get() > 0) {
+            Staged item;
+            while (batch.size() < batchSize && (item = staged.poll()) != null) {
+                batch.add(item);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            queued.addAndGet(-batch.size());
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Staged> batch) {
+        try {
+            BatchResult result = transaction.execute(status -> {
+                // Another node replaying the same rows already holds or has deleted some of them
+                if (stagingRepository.deleteByIds(batch.stream().map(Staged::stagingId).toList()) != batch.size()) {
+                    throw new IllegalStateException("Ingest batch partly claimed by another node");
+                }
+                return batchService.createAll(batch.stream().map(Staged::request).toList());
+            });
+            record(batch, result);
+        } catch (RuntimeException e) {
+            // Any failed chunk rolls the whole batch back, staging rows included: retry item by item
+            log.warn("Ingest batch of {} items failed, writing them one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::writeOne);
+        }
+    }
+
+    private void writeOne(Staged item) {
+        try {
+            BatchResult result = transaction.execute(status ->
+                    stagingRepository.deleteByIds(List.of(item.stagingId())) == 0
+                            ? null
+                            : batchService.createAll(List.of(item.request())));
+            if (result == null) {
+                // Written by whichever node claimed it; its status lives there
+                statuses.invalidate(item.trackingId());
+                return;
+            }
+            record(List.of(item), result);
+        } catch (RuntimeException e) {
+            log.error("Ingest item {} failed", item.trackingId(), e);
+            statuses.put(item.trackingId(),
+                    new IngestStatus(item.trackingId(), IngestStatus.State.FAILED, null, e.getMessage()));
+            discard(item);
+        }
+    }
+
+    private void discard(Staged item) {
+        try {
+            transaction.executeWithoutResult(status -> stagingRepository.deleteByIds(List.of(item.stagingId())));
+        } catch (RuntimeException e) {
+            // Left staged, so the next start retries it
+            log.warn("Could not discard failed ingest item {}: {}", item.trackingId(), e.getMessage());
+        }
+    }
+
+    private void record(List<Staged> batch, BatchResult result) {
+        for (BatchItemResult item : result.items()) {
+            String trackingId = batch.get(item.index()).trackingId();
+            statuses.put(trackingId, item.succeeded()
+                    ? new IngestStatus(trackingId, IngestStatus.State.CREATED, item.id(), null)
+                    : new IngestStatus(trackingId, IngestStatus.State.FAILED, null, item.error()));
+        }
+    }
+}
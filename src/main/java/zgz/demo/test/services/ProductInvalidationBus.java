@@ -0,0 +1,154 @@
+package zgz.demo.test.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import zgz.demo.test.models.ProductChangeEntity;
+import zgz.demo.test.models.ProductChangedEvent;
+import zgz.demo.test.models.ProductChangedEvent.ChangeType;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.repositories.ProductChangeRepository;
+import zgz.demo.test.repositories.ProductRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the per-node caches coherent when several instances share one database. The outbox is the
+ * bus: this node polls it for rows other nodes wrote and replays them locally as remote
+ * {@link ProductChangedEvent}s, so every cache reacts exactly as it does to a local write. A
+ * replayed event carries the product as it is in the database now rather than as the row recorded
+ * it, so a late replay can never put an older state over a newer local one. Rows are read in commit
+ * order (see {@link ProductChangeSequencer}), so neither a long transaction nor a skewed clock on the
+ * writing node can slip a change behind the cursor; other nodes' writes show up here within
+ * {@code products.cluster.poll-interval} of their commit.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "products.cluster.enabled", havingValue = "true")
+public class ProductInvalidationBus implements SmartLifecycle {
+
+    private final ProductChangeRepository changeRepository;
+    private final ProductRepository productRepository;
+    private final ProductChangeFeed changeFeed;
+    private final ProductChangeSequencer sequencer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate primaryTransaction;
+    private final Duration pollInterval;
+    private final int batchSize;
+    // Commit sequence of the last row seen, only touched by the poller thread
+    private long cursor;
+    private volatile boolean running;
+    private volatile Thread poller;
+
+    public ProductInvalidationBus(ProductChangeRepository changeRepository,
+                                  ProductRepository productRepository,
+                                  ProductChangeFeed changeFeed,
+                                  ProductChangeSequencer sequencer,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${products.cluster.poll-interval:200ms}") Duration pollInterval,
+                                  @Value("${products.changes.batch-size:500}") int batchSize) {
+        this.changeRepository = changeRepository;
+        this.productRepository = productRepository;
+        this.changeFeed = changeFeed;
+        this.sequencer = sequencer;
+        this.eventPublisher = eventPublisher;
+        // On the primary: the products it re-reads must be at least as new as the rows it replays
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void start() {
+        // Caches start empty, so only changes committed from now on need replaying
+        sequencer.sequence();
+        cursor = sequencer.lastCommitSeq();
+        running = true;
+        poller = Thread.ofPlatform().name("product-invalidation-bus").daemon().start(this::poll);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = poller;
+        current.interrupt();
+        try {
+            current.join(pollInterval.multipliedBy(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        poller = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return poller != null;
+    }
+
+    private void poll() {
+        while (running) {
+            try {
+                if (replay() == batchSize) {
+                    continue;
+                }
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation poll failed: {}", e.getMessage());
+            }
+            try {
+                Thread.sleep(pollInterval);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private int replay() {
+        sequencer.sequence();
+        List<ProductChangedEvent> events = primaryTransaction.execute(status -> {
+            List<ProductChangeEntity> changes = changeRepository.findForeignChanges(
+                    cursor, changeFeed.node(), Limit.of(batchSize));
+            if (changes.isEmpty()) {
+                return List.of();
+            }
+            cursor = changes.getLast().getCommitSeq();
+            return toEvents(changes);
+        });
+        // Published outside the read transaction so the after-commit listeners run right away
+        events.forEach(eventPublisher::publishEvent);
+        return events.size();
+    }
+
+    private List<ProductChangedEvent> toEvents(List<ProductChangeEntity> changes) {
+        Map<Long, ProductResponse> products = productRepository.findResponsesByIdIn(changes.stream()
+                        .map(ProductChangeEntity::getProductId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ProductResponse::id, Function.identity()));
+        List<ProductChangedEvent> events = new ArrayList<>(changes.size());
+        for (ProductChangeEntity change : changes) {
+            ProductResponse current = products.get(change.getProductId());
+            // Only the category of the previous state is recorded, which is all the caches key on
+            ProductResponse previous = change.getPreviousCategory() == null
+                    ? null
+                    : new ProductResponse(change.getProductId(), null, null, change.getPreviousCategory(), null);
+            ChangeType type = current == null ? ChangeType.DELETED : change.getType();
+            events.add(new ProductChangedEvent(type, change.getProductId(), previous, current, true));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,77 @@
+package zgz.demo.test.services;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the product hot path. Every meter is registered once up front and looked up by
+ * ordinal, so recording skips the tag lookup a {@code Timer.builder(..).register(..)} per call would do.
+ * Repository methods are timed the same way by {@code RepositoryMetricsConfig}.
+ */
+@Component
+public class ProductMetrics {
+
+    public enum Operation {
+        CREATE("create"),
+        FIND_ALL("findAll"),
+        FIND_BY_CATEGORY("findByCategory"),
+        FIND_PAGE("findPage"),
+        FIND_FILTERED("findFiltered"),
+        UPDATE("update"),
+        PATCH("patch"),
+        DELETE("delete");
+
+        private final String method;
+
+        Operation(String method) {
+            this.method = method;
+        }
+    }
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final Timer[] serviceTimers;
+    private final Timer[] mapperTimers;
+    private final DistributionSummary[] resultSizes;
+
+    public ProductMetrics(MeterRegistry registry) {
+        Operation[] operations = Operation.values();
+        serviceTimers = new Timer[operations.length];
+        mapperTimers = new Timer[operations.length];
+        resultSizes = new DistributionSummary[operations.length];
+        for (Operation operation : operations) {
+            serviceTimers[operation.ordinal()] = Timer.builder("products.service")
+                    .description("Latency of ProductServiceImpl operations")
+                    .tag("method", operation.method)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            mapperTimers[operation.ordinal()] = Timer.builder("products.mapper")
+                    .description("Time spent mapping entities to responses")
+                    .tag("method", operation.method)
+                    .publishPercentiles(PERCENTILES)
+                    .register(registry);
+            resultSizes[operation.ordinal()] = DistributionSummary.builder("products.result.size")
+                    .description("Number of products loaded from the database")
+                    .tag("method", operation.method)
+                    .publishPercentiles(PERCENTILES)
+                    .register(registry);
+        }
+    }
+
+    public void recordService(Operation operation, long startNanos) {
+        serviceTimers[operation.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordMapper(Operation operation, long startNanos) {
+        mapperTimers[operation.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordResultSize(Operation operation, int size) {
+        resultSizes[operation.ordinal()].record(size);
+    }
+}
@@ -0,0 +1,114 @@
+package zgz.demo.test.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import zgz.demo.test.config.WireFormat;
+import zgz.demo.test.models.ProductResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded bodies of the collection endpoints, per wire format, with the ETag of the data they hold,
+ * stored under the {@link ProductVersions} generation they were built for. A write moves the
+ * generation on, so the next request misses and re-encodes; nothing is evicted eagerly. Bodies from
+ * {@code server.compression.min-response-size} up also keep a gzip copy.
+ */
+@Component
+public class ProductPayloadCache {
+
+    private final ProductServiceImpl productService;
+    private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+    private final boolean gzip;
+    private final long gzipThreshold;
+    private final Cache<Key, Payload> payloads;
+
+    public ProductPayloadCache(ProductServiceImpl productService,
+                               ObjectMapper objectMapper,
+                               MappingJackson2CborHttpMessageConverter cborConverter,
+                               MappingJackson2SmileHttpMessageConverter smileConverter,
+                               @Value("${products.payload.gzip:true}") boolean gzip,
+                               @Value("${server.compression.min-response-size:2KB}") DataSize gzipThreshold,
+                               @Value("${products.payload.max-bytes:268435456}") long maxBytes,
+                               @Value("${products.cache.ttl:60s}") Duration ttl) {
+        this.productService = productService;
+        this.mappers.put(WireFormat.JSON, objectMapper);
+        this.mappers.put(WireFormat.CBOR, cborConverter.getObjectMapper());
+        this.mappers.put(WireFormat.SMILE, smileConverter.getObjectMapper());
+        this.gzip = gzip;
+        this.gzipThreshold = gzipThreshold.toBytes();
+        this.payloads = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Payload payload) -> payload.size())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // A null category is the full list
+    private record Key(WireFormat format, String category) {
+    }
+
+    /**
+     * @param gzip the gzip encoding of {@code body}, or null when it is not worth compressing
+     */
+    public record Payload(String generation, String etag, MediaType contentType, byte[] body, byte[] gzip) {
+
+        int size() {
+            return body.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+
+    public Payload all(String generation, WireFormat format) {
+        return get(new Key(format, null), generation, productService::findAll);
+    }
+
+    public Payload byCategory(String category, String generation, WireFormat format) {
+        return get(new Key(format, category), generation, () -> productService.findByCategory(category));
+    }
+
+    private Payload get(Key key, String generation, Supplier<List<ProductResponse>> loader) {
+        Payload cached = payloads.getIfPresent(key);
+        if (cached != null && cached.generation().equals(generation)) {
+            return cached;
+        }
+        Payload payload = encode(generation, key.format(), loader.get());
+        payloads.put(key, payload);
+        return payload;
+    }
+
+    private Payload encode(String generation, WireFormat format, List<ProductResponse> products) {
+        try {
+            byte[] body = mappers.get(format).writeValueAsBytes(products);
+            return new Payload(generation, ProductVersions.etag(products), format.mediaType(), body,
+                    gzip && body.length >= gzipThreshold ? gzip(body) : null);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192)) {
+            gzipOut.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
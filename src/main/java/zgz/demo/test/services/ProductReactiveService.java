@@ -0,0 +1,58 @@
+package zgz.demo.test.services;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import zgz.demo.test.models.ProductPage;
+import zgz.demo.test.models.ProductResponse;
+
+import java.util.function.Function;
+
+/**
+ * Non-blocking read surface over the blocking JPA repository: keyset pages are fetched on a
+ * bounded scheduler only when the subscriber asks for more, so a slow client holds at most a
+ * couple of pages in memory and no request thread while it drains them.
+ */
+@Service
+public class ProductReactiveService {
+
+    private final ProductServiceImpl productService;
+    private final Scheduler scheduler;
+    private final int pageSize;
+
+    public ProductReactiveService(ProductServiceImpl productService,
+                                  @Value("${products.reactive.page-size:200}") int pageSize,
+                                  @Value("${products.reactive.max-threads:16}") int maxThreads,
+                                  @Value("${products.reactive.max-queued-tasks:1000}") int maxQueuedTasks) {
+        this.productService = productService;
+        this.pageSize = pageSize;
+        this.scheduler = Schedulers.newBoundedElastic(maxThreads, maxQueuedTasks, "product-reads");
+    }
+
+    public Flux<ProductResponse> findAll() {
+        return pages(after -> productService.findPage(after, pageSize));
+    }
+
+    public Flux<ProductResponse> findByCategory(String category) {
+        return pages(after -> productService.findPageByCategory(category, after, pageSize));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+
+    private Flux<ProductResponse> pages(Function<Long, ProductPage> fetch) {
+        return fetch(fetch, null)
+                .expand(page -> page.nextCursor() == null ? Mono.empty() : fetch(fetch, page.nextCursor()))
+                .concatMapIterable(ProductPage::items, 1);
+    }
+
+    private Mono<ProductPage> fetch(Function<Long, ProductPage> fetch, Long after) {
+        return Mono.fromCallable(() -> fetch.apply(after)).subscribeOn(scheduler);
+    }
+}
@@ -0,0 +1,255 @@
+package zgz.demo.test.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import zgz.demo.test.models.ProductChangedEvent;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.repositories.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index over product name and description. Terms live in a sorted map so a
+ * query token matches every term it prefixes; every query token must match (AND). Relevance sums,
+ * per token, the best match found in the product: name hits weigh more than description hits and
+ * whole-word hits more than prefix hits. Built on startup and patched after every committed write;
+ * writes committed while the build streams are held back and applied once it is done, and a product
+ * is never re-indexed from a state older than the one it has, so the build cannot undo a live write.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final double EXACT_BONUS = 2.0;
+    private static final Comparator<Hit> RANKING =
+            Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::id);
+
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, Document> documents = new ConcurrentHashMap<>();
+    private final ProductRepository repository;
+    private final TransactionTemplate primaryTransaction;
+    private final boolean enabled;
+    // Changes that arrived while the build streams, applied after it; null once the build is done
+    private List<ProductChangedEvent> pending = new ArrayList<>();
+    private volatile boolean ready;
+
+    public ProductSearchIndex(ProductRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${products.search.enabled:true}") boolean enabled) {
+        this.repository = repository;
+        // On the primary: the build is never repeated, so anything a lagging replica lacks would stay
+        // missing from the index
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    private record Document(Long version, String[] nameTerms, String[] descriptionTerms) {
+    }
+
+    private record Hit(Long id, double score) {
+    }
+
+    /**
+     * @return ids of the best matching products, most relevant first
+     */
+    public List<Long> search(String query, int limit) {
+        String[] tokens = tokenize(query);
+        Map<Long, Double> scores = null;
+        for (String token : tokens) {
+            Map<Long, Double> tokenScores = new HashMap<>();
+            for (Map.Entry<String, Set<Long>> posting : prefixed(token).entrySet()) {
+                for (Long id : posting.getValue()) {
+                    if (scores != null && !scores.containsKey(id)) {
+                        continue;
+                    }
+                    Document document = documents.get(id);
+                    if (document != null) {
+                        tokenScores.merge(id, score(document, posting.getKey(), token), Math::max);
+                    }
+                }
+            }
+            if (scores != null) {
+                Map<Long, Double> previous = scores;
+                tokenScores.replaceAll((id, score) -> score + previous.get(id));
+            }
+            scores = tokenScores;
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+        if (scores == null) {
+            return List.of();
+        }
+        return top(scores, limit);
+    }
+
+    // Keeps only the best `limit` hits in a heap whose head is the weakest, instead of sorting every match
+    private static List<Long> top(Map<Long, Double> scores, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(limit, scores.size()), RANKING.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            Hit hit = new Hit(entry.getKey(), entry.getValue());
+            if (best.size() < limit) {
+                best.add(hit);
+            } else if (RANKING.compare(hit, best.peek()) < 0) {
+                best.poll();
+                best.add(hit);
+            }
+        }
+        Hit[] ranked = best.toArray(new Hit[0]);
+        Arrays.sort(ranked, RANKING);
+        List<Long> ids = new ArrayList<>(ranked.length);
+        for (Hit hit : ranked) {
+            ids.add(hit.id());
+        }
+        return ids;
+    }
+
+    /**
+     * @return whether the startup build has finished; until then searches miss products
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Writers are serialized so postings never lose an id to a concurrent empty-set removal
+    public synchronized void index(ProductResponse product) {
+        Document indexed = documents.get(product.id());
+        if (indexed != null && indexed.version() != null && product.version() != null
+                && indexed.version() > product.version()) {
+            return;
+        }
+        remove(product.id());
+        Document document = new Document(product.version(), tokenize(product.name()), tokenize(product.description()));
+        documents.put(product.id(), document);
+        addPostings(product.id(), document.nameTerms());
+        addPostings(product.id(), document.descriptionTerms());
+    }
+
+    public synchronized void remove(Long id) {
+        Document document = documents.remove(id);
+        if (document != null) {
+            removePostings(id, document.nameTerms());
+            removePostings(id, document.descriptionTerms());
+        }
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        primaryTransaction.executeWithoutResult(status -> {
+            try (Stream<ProductResponse> products = repository.streamAllResponses()) {
+                products.forEach(this::index);
+            }
+        });
+        synchronized (this) {
+            pending.forEach(this::apply);
+            pending = null;
+        }
+        ready = true;
+        log.info("Search index built with {} products in {} ms", documents.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (pending != null) {
+                pending.add(event);
+                return;
+            }
+        }
+        apply(event);
+    }
+
+    private void apply(ProductChangedEvent event) {
+        if (event.current() != null) {
+            index(event.current());
+        } else {
+            remove(event.id());
+        }
+    }
+
+    private NavigableMap<String, Set<Long>> prefixed(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static double score(Document document, String term, String token) {
+        double bonus = term.equals(token) ? EXACT_BONUS : 1.0;
+        if (contains(document.nameTerms(), term)) {
+            return NAME_WEIGHT * bonus;
+        }
+        return DESCRIPTION_WEIGHT * bonus;
+    }
+
+    private static boolean contains(String[] terms, String term) {
+        for (String candidate : terms) {
+            if (candidate.equals(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addPostings(Long id, String[] terms) {
+        for (String term : terms) {
+            postings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private void removePostings(Long id, String[] terms) {
+        for (String term : terms) {
+            postings.computeIfPresent(term, (t, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty() && !tokens.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens.toArray(String[]::new);
+    }
+}
@@ -1,59 +1,335 @@
 package zgz.demo.test.services;
 
 import io.swagger.v3.oas.annotations.servers.Server;
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import zgz.demo.test.config.exeptions.BadRequestException;
+import zgz.demo.test.config.exeptions.PreconditionFailedException;
+import zgz.demo.test.config.exeptions.ProductNotFoundException;
+import zgz.demo.test.config.exeptions.ServiceUnavailableException;
 import zgz.demo.test.mappers.ProductMapper;
+import zgz.demo.test.models.ProductChangedEvent;
+import zgz.demo.test.models.ProductChangedEvent.ChangeType;
 import zgz.demo.test.models.ProductEntity;
+import zgz.demo.test.models.ProductFilter;
+import zgz.demo.test.models.ProductPage;
 import zgz.demo.test.models.ProductRequest;
 import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.models.ProductRow;
+import zgz.demo.test.models.ProductSlice;
 import zgz.demo.test.repositories.ProductRepository;
+import zgz.demo.test.repositories.ProductSpecifications;
+import zgz.demo.test.services.ProductMetrics.Operation;
 
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-@Slf4j
-@RequiredArgsConstructor
 @Service
 public class ProductServiceImpl implements BasicCrudService<ProductRequest, ProductResponse, Long> {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_SEARCH_RESULTS = 100;
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "price");
+
     private final ProductRepository repository;
     private final ProductMapper mapper;
+    private final EntityManager entityManager;
+    private final ProductCache cache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductMetrics metrics;
+    private final ProductSearchIndex searchIndex;
+    private final Optional<ProductSnapshotStore> snapshot;
+    // Not read-only, so the loads behind a miss run on the primary (see DataSourceConfig)
+    private final TransactionTemplate primaryRead;
+
+    public ProductServiceImpl(ProductRepository repository,
+                              ProductMapper mapper,
+                              EntityManager entityManager,
+                              ProductCache cache,
+                              ApplicationEventPublisher eventPublisher,
+                              ProductMetrics metrics,
+                              ProductSearchIndex searchIndex,
+                              Optional<ProductSnapshotStore> snapshot,
+                              PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.entityManager = entityManager;
+        this.cache = cache;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+        this.searchIndex = searchIndex;
+        this.snapshot = snapshot;
+        this.primaryRead = new TransactionTemplate(transactionManager);
+    }
 
     @Override
+    @Transactional
     public ProductResponse create(ProductRequest productRequest) {
-        ProductEntity entity = mapper.toEntity(productRequest);
-        ProductEntity save = repository.save(entity);
-        return mapper.toResponse(save);
+        long start = System.nanoTime();
+        try {
+            ProductEntity entity = mapper.toEntity(productRequest);
+            ProductEntity save = repository.save(entity);
+            ProductResponse created = mapper.toResponse(save);
+            eventPublisher.publishEvent(new ProductChangedEvent(ChangeType.CREATED, save.getId(), null, created));
+            return created;
+        } finally {
+            metrics.recordService(Operation.CREATE, start);
+        }
     }
 
     @Override
     public List<ProductResponse> findAll() {
-        List<ProductEntity> productEntities = repository.findAll();
-        return mapper.toResponseList(productEntities);
+        long start = System.nanoTime();
+        try {
+            // A snapshot merge still decodes every product, so it sits behind the cache like a query
+            return cache.getAll(() -> fromSnapshot()
+                    .map(ProductSnapshotStore::findAll)
+                    .orElseGet(() -> fromPrimary(this::loadAll)));
+        } finally {
+            metrics.recordService(Operation.FIND_ALL, start);
+        }
     }
 
     @Override
+    @Transactional
     public ProductResponse update(Long id, ProductRequest productRequest) {
-        repository.findById(id).orElseThrow(() -> {
-                     log.warn("Product with ID {} not found for update", id);
-                     return new NoSuchElementException("Product with ID " + id + " not found");
-                 });
-        ProductEntity newProduct = mapper.toEntity(productRequest);
-        newProduct.setId(id);
-        ProductEntity save = repository.save(newProduct);
-        return mapper.toResponse(save);
+        return update(id, productRequest, null);
+    }
+
+    /**
+     * @param expectedVersion when not null, the update only applies if the product is still at this version
+     * @throws PreconditionFailedException when the product exists at another version
+     */
+    @Transactional
+    public ProductResponse update(Long id, ProductRequest productRequest, Long expectedVersion) {
+        long start = System.nanoTime();
+        try {
+            return replace(id, productRequest, expectedVersion);
+        } finally {
+            metrics.recordService(Operation.UPDATE, start);
+        }
+    }
+
+    @Transactional
+    public ProductResponse patch(Long id, ProductRequest changes) {
+        return patch(id, changes, null);
+    }
+
+    @Transactional
+    public ProductResponse patch(Long id, ProductRequest changes, Long expectedVersion) {
+        long start = System.nanoTime();
+        try {
+            // Locked, so no other write slips between the pre-image and the UPDATE
+            ProductResponse previous = repository.findForUpdateById(id)
+                    .map(mapper::toResponse)
+                    .orElseThrow(() -> new ProductNotFoundException(id));
+            if (repository.patchById(id, changes, expectedVersion) == 0) {
+                throw notFoundOrConflict(id, expectedVersion);
+            }
+            ProductResponse current = repository.findResponseById(id).orElseThrow();
+            eventPublisher.publishEvent(new ProductChangedEvent(ChangeType.UPDATED, id, previous, current));
+            return current;
+        } finally {
+            metrics.recordService(Operation.PATCH, start);
+        }
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
-        repository.deleteById(id);
+        long start = System.nanoTime();
+        try {
+            repository.findById(id).ifPresent(existing -> {
+                ProductResponse previous = mapper.toResponse(existing);
+                repository.delete(existing);
+                eventPublisher.publishEvent(new ProductChangedEvent(ChangeType.DELETED, id, previous, null));
+            });
+        } finally {
+            metrics.recordService(Operation.DELETE, start);
+        }
     }
 
     public List<ProductResponse> findByCategory(String category) {
-        List<ProductEntity> productEntities = repository.findByCategory(category);
-        return mapper.toResponseList(productEntities);
+        long start = System.nanoTime();
+        try {
+            return cache.getByCategory(category, () -> fromSnapshot()
+                    .map(store -> store.findByCategory(category))
+                    .orElseGet(() -> fromPrimary(() -> loadByCategory(category))));
+        } finally {
+            metrics.recordService(Operation.FIND_BY_CATEGORY, start);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ProductPage findPage(Long after, int limit) {
+        long start = System.nanoTime();
+        try {
+            int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            long cursor = after == null ? 0L : after;
+            List<ProductEntity> productEntities = repository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(size));
+            Long nextCursor = productEntities.size() == size
+                    ? productEntities.get(productEntities.size() - 1).getId()
+                    : null;
+            long mapStart = System.nanoTime();
+            List<ProductResponse> products = mapper.toResponseList(productEntities);
+            metrics.recordMapper(Operation.FIND_PAGE, mapStart);
+            return new ProductPage(products, nextCursor);
+        } finally {
+            metrics.recordService(Operation.FIND_PAGE, start);
+        }
+    }
+
+    /**
+     * @return at most {@code limit} matching products, and whether more match
+     */
+    @Transactional(readOnly = true)
+    public ProductSlice findFiltered(ProductFilter filter, int limit) {
+        long start = System.nanoTime();
+        try {
+            int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            // One row past the limit tells a complete result from a cut one
+            List<ProductEntity> productEntities = repository.findBy(ProductSpecifications.matching(filter),
+                    query -> query.sortBy(parseSort(filter.sort())).limit(size + 1).all());
+            boolean truncated = productEntities.size() > size;
+            if (truncated) {
+                productEntities = productEntities.subList(0, size);
+            }
+            metrics.recordResultSize(Operation.FIND_FILTERED, productEntities.size());
+            long mapStart = System.nanoTime();
+            List<ProductResponse> products = mapper.toResponseList(productEntities);
+            metrics.recordMapper(Operation.FIND_FILTERED, mapStart);
+            return new ProductSlice(products, truncated);
+        } finally {
+            metrics.recordService(Operation.FIND_FILTERED, start);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ProductPage findPageByCategory(String category, Long after, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long cursor = after == null ? 0L : after;
+        List<ProductResponse> products = repository.findResponsesByCategoryAfter(category, cursor, PageRequest.ofSize(size));
+        Long nextCursor = products.size() == size ? products.get(products.size() - 1).id() : null;
+        return new ProductPage(products, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductResponse> search(String query, int limit) {
+        if (!searchIndex.isReady()) {
+            throw new ServiceUnavailableException("Search is not available yet, retry shortly");
+        }
+        List<Long> ids = searchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductResponse> byId = repository.findResponsesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductResponse::id, Function.identity()));
+        // Keep relevance order; a product deleted since indexing is simply skipped
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<ProductResponse> consumer) {
+        try (Stream<ProductEntity> productEntities = repository.streamAll()) {
+            productEntities.forEach(entity -> {
+                consumer.accept(mapper.toResponse(entity));
+                // Keep the persistence context flat regardless of table size
+                entityManager.detach(entity);
+            });
+        }
+    }
+
+    // The UPDATE hands back the row it replaced, so invalidation keys on the category the row really
+    // had, not on whatever this node happens to cache
+    private ProductResponse replace(Long id, ProductRequest request, Long expectedVersion) {
+        ProductResponse previous;
+        if (expectedVersion == null) {
+            previous = repository.updateByIdReturningPrevious(id, request.name(), request.description(),
+                            request.category(), request.price())
+                    .map(ProductRow::toResponse)
+                    .orElseThrow(() -> new ProductNotFoundException(id));
+        } else {
+            previous = repository.updateByIdAndVersionReturningPrevious(id, request.name(), request.description(),
+                            request.category(), request.price(), expectedVersion)
+                    .map(ProductRow::toResponse)
+                    .orElseThrow(() -> notFoundOrConflict(id, expectedVersion));
+        }
+        ProductResponse current = new ProductResponse(id, request.name(), request.description(), request.category(),
+                request.price(), previous.version() + 1);
+        eventPublisher.publishEvent(new ProductChangedEvent(ChangeType.UPDATED, id, previous, current));
+        return current;
+    }
+
+    private RuntimeException notFoundOrConflict(Long id, Long expectedVersion) {
+        if (expectedVersion != null && repository.existsById(id)) {
+            return new PreconditionFailedException("Product with ID " + id + " is no longer at version " + expectedVersion);
+        }
+        return new ProductNotFoundException(id);
+    }
+
+    // Cache hits never open a transaction. A miss usually follows an eviction, i.e. a commit a lagging
+    // replica may not have applied yet, and whatever it loads is cached, so it reads the primary; the
+    // session alone is read-only, which still spares the snapshots and the flush
+    private <T> T fromPrimary(Supplier<T> load) {
+        return primaryRead.execute(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            return load.get();
+        });
+    }
+
+    private Optional<ProductSnapshotStore> fromSnapshot() {
+        return snapshot.filter(ProductSnapshotStore::isReady);
+    }
+
+    private List<ProductResponse> loadAll() {
+        List<ProductEntity> productEntities = repository.findAll();
+        metrics.recordResultSize(Operation.FIND_ALL, productEntities.size());
+        long mapStart = System.nanoTime();
+        List<ProductResponse> products = mapper.toResponseList(productEntities);
+        metrics.recordMapper(Operation.FIND_ALL, mapStart);
+        return products;
+    }
+
+    private List<ProductResponse> loadByCategory(String category) {
+        // Projection query: mapping happens inside Hibernate, so all of it is DB time
+        List<ProductResponse> products = repository.findResponsesByCategory(category);
+        metrics.recordResultSize(Operation.FIND_BY_CATEGORY, products.size());
+        return products;
+    }
+
+    // "property" or "property,asc|desc"; only indexed columns are sortable
+    private static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by("id");
+        }
+        String[] parts = sort.split(",", 2);
+        String property = parts[0].trim();
+        Optional<Sort.Direction> direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim())
+                : Optional.of(Sort.Direction.ASC);
+        if (!SORTABLE_PROPERTIES.contains(property) || direction.isEmpty()) {
+            throw new BadRequestException("Sort must be id or price, optionally followed by ,asc or ,desc");
+        }
+        return Sort.by(direction.get(), property).and(Sort.by("id"));
     }
 }
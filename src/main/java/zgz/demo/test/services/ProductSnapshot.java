@@ -0,0 +1,199 @@
+package zgz.demo.test.services;
+
+import zgz.demo.test.models.ProductResponse;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable columnar copy of the catalog, ordered by id: primitive columns for id, price (scaled
+ * long cents), version and dictionary-encoded category, and a single off-heap UTF-8 arena for name and
+ * description. A million products cost a handful of flat arrays instead of a million entity graphs.
+ */
+final class ProductSnapshot {
+
+    static final ProductSnapshot EMPTY = new Builder(0).build();
+
+    private static final int NULL_TEXT = -1;
+    private static final int NO_CATEGORY = -1;
+    private static final long NO_VERSION = -1;
+
+    private final long[] ids;
+    private final long[] priceCents;
+    private final long[] versions;
+    private final int[] categoryCodes;
+    private final String[] categories;
+    private final Map<String, Integer> categoryIndex;
+    // Row numbers of every category, ascending (so also by id)
+    private final int[][] rowsByCategory;
+    private final int[] nameOffsets;
+    private final int[] nameLengths;
+    private final int[] descriptionOffsets;
+    private final int[] descriptionLengths;
+    private final ByteBuffer arena;
+
+    private ProductSnapshot(Builder builder) {
+        int size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.priceCents = Arrays.copyOf(builder.priceCents, size);
+        this.versions = Arrays.copyOf(builder.versions, size);
+        this.categoryCodes = Arrays.copyOf(builder.categoryCodes, size);
+        String[] categories = new String[builder.categories.size()];
+        builder.categories.forEach((category, code) -> categories[code] = category);
+        this.categories = categories;
+        this.categoryIndex = Map.copyOf(builder.categories);
+        this.nameOffsets = Arrays.copyOf(builder.nameOffsets, size);
+        this.nameLengths = Arrays.copyOf(builder.nameLengths, size);
+        this.descriptionOffsets = Arrays.copyOf(builder.descriptionOffsets, size);
+        this.descriptionLengths = Arrays.copyOf(builder.descriptionLengths, size);
+        ByteBuffer arena = ByteBuffer.allocateDirect(Math.max(1, builder.arena.position()));
+        arena.put(builder.arena.flip());
+        this.arena = arena.asReadOnlyBuffer();
+
+        int[] counts = new int[categories.length];
+        for (int code : categoryCodes) {
+            if (code != NO_CATEGORY) {
+                counts[code]++;
+            }
+        }
+        this.rowsByCategory = new int[categories.length][];
+        for (int code = 0; code < categories.length; code++) {
+            rowsByCategory[code] = new int[counts[code]];
+            counts[code] = 0;
+        }
+        for (int row = 0; row < size; row++) {
+            int code = categoryCodes[row];
+            if (code != NO_CATEGORY) {
+                rowsByCategory[code][counts[code]++] = row;
+            }
+        }
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long id(int row) {
+        return ids[row];
+    }
+
+    /**
+     * @return the version of the product with this id, or -1 when it is absent or has none
+     */
+    long version(long id) {
+        int row = Arrays.binarySearch(ids, id);
+        return row < 0 ? NO_VERSION : versions[row];
+    }
+
+    /**
+     * @return the rows of the category, or an empty array when it is unknown
+     */
+    int[] rows(String category) {
+        Integer code = categoryIndex.get(category);
+        return code == null ? new int[0] : rowsByCategory[code];
+    }
+
+    ProductResponse product(int row) {
+        int code = categoryCodes[row];
+        return new ProductResponse(
+                ids[row],
+                text(nameOffsets[row], nameLengths[row]),
+                text(descriptionOffsets[row], descriptionLengths[row]),
+                code == NO_CATEGORY ? null : categories[code],
+                BigDecimal.valueOf(priceCents[row], 2),
+                versions[row] == NO_VERSION ? null : versions[row]);
+    }
+
+    private String text(int offset, int length) {
+        if (length == NULL_TEXT) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        arena.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Accepts products in ascending id order.
+     */
+    static final class Builder {
+
+        private int size;
+        private long[] ids;
+        private long[] priceCents;
+        private long[] versions;
+        private int[] categoryCodes;
+        private int[] nameOffsets;
+        private int[] nameLengths;
+        private int[] descriptionOffsets;
+        private int[] descriptionLengths;
+        private final Map<String, Integer> categories = new HashMap<>();
+        private ByteBuffer arena;
+
+        Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            ids = new long[capacity];
+            priceCents = new long[capacity];
+            versions = new long[capacity];
+            categoryCodes = new int[capacity];
+            nameOffsets = new int[capacity];
+            nameLengths = new int[capacity];
+            descriptionOffsets = new int[capacity];
+            descriptionLengths = new int[capacity];
+            arena = ByteBuffer.allocate(capacity * 64);
+        }
+
+        Builder add(ProductResponse product) {
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = product.id();
+            priceCents[size] = product.price().setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+            versions[size] = product.version() == null ? NO_VERSION : product.version();
+            categoryCodes[size] = product.category() == null
+                    ? NO_CATEGORY
+                    : categories.computeIfAbsent(product.category(), c -> categories.size());
+            nameOffsets[size] = arena.position();
+            nameLengths[size] = append(product.name());
+            descriptionOffsets[size] = arena.position();
+            descriptionLengths[size] = append(product.description());
+            size++;
+            return this;
+        }
+
+        ProductSnapshot build() {
+            return new ProductSnapshot(this);
+        }
+
+        private int append(String text) {
+            if (text == null) {
+                return NULL_TEXT;
+            }
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (arena.remaining() < bytes.length) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(arena.capacity() * 2, arena.position() + bytes.length));
+                larger.put(arena.flip());
+                arena = larger;
+            }
+            arena.put(bytes);
+            return bytes.length;
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+            nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+            nameLengths = Arrays.copyOf(nameLengths, capacity);
+            descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity);
+            descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+        }
+    }
+}
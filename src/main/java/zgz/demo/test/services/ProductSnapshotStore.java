@@ -0,0 +1,168 @@
+package zgz.demo.test.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import zgz.demo.test.models.ProductChangedEvent;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.repositories.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Serves full and per-category listings from a {@link ProductSnapshot} instead of the database.
+ * Committed writes land in a small id-ordered overlay that reads merge over the snapshot; once the
+ * overlay outgrows its limit the snapshot is rebuilt in the background and the overlay pruned.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "products.snapshot.enabled", havingValue = "true")
+public class ProductSnapshotStore {
+
+    private final ProductRepository repository;
+    private final TransactionTemplate primaryTransaction;
+    private final int maxOverlay;
+    // Latest known state per changed id; a null product is a deletion
+    private final ConcurrentSkipListMap<Long, Patch> overlay = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile ProductSnapshot snapshot = ProductSnapshot.EMPTY;
+    private volatile boolean ready;
+
+    public ProductSnapshotStore(ProductRepository repository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${products.snapshot.max-overlay:10000}") int maxOverlay) {
+        this.repository = repository;
+        // On the primary: the overlay is pruned of everything published before a rebuild started,
+        // which a lagging replica may not have yet
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.maxOverlay = maxOverlay;
+    }
+
+    private record Patch(long sequence, ProductResponse product) {
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<ProductResponse> findAll() {
+        ProductSnapshot current = snapshot;
+        return merge(current, current.size(), row -> row, product -> true);
+    }
+
+    public List<ProductResponse> findByCategory(String category) {
+        ProductSnapshot current = snapshot;
+        int[] rows = current.rows(category);
+        return merge(current, rows.length, i -> rows[i], product -> Objects.equals(product.category(), category));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        long since = sequence.get();
+        ProductSnapshot.Builder builder = new ProductSnapshot.Builder(snapshot.size() + overlay.size());
+        primaryTransaction.executeWithoutResult(status -> {
+            try (Stream<ProductResponse> products = repository.streamAllResponses()) {
+                products.forEach(builder::add);
+            }
+        });
+        snapshot = builder.build();
+        ready = true;
+        // Changes published before the rebuild started are part of the new snapshot
+        overlay.values().removeIf(patch -> patch.sequence() <= since);
+        log.info("Product snapshot rebuilt with {} products in {} ms", snapshot.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Ahead of ProductCache, which reloads from here as soon as it has evicted
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductResponse current = event.current();
+        if (current != null && current.version() != null && snapshot.version(event.id()) >= current.version()) {
+            // A late listener: a rebuild already read this state or a newer one
+            return;
+        }
+        overlay.merge(event.id(), new Patch(sequence.incrementAndGet(), current), ProductSnapshotStore::newer);
+        if (ready && overlay.size() > maxOverlay && rebuilding.compareAndSet(false, true)) {
+            Thread.ofPlatform().daemon().name("product-snapshot-rebuild").start(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.error("Product snapshot rebuild failed", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+    }
+
+    // After-commit listeners run in whatever order their threads get there, not in commit order: the
+    // higher version wins, and a deletion wins over anything since ids are never reused
+    private static Patch newer(Patch held, Patch incoming) {
+        if (held.product() == null || incoming.product() == null) {
+            return held.product() == null ? held : incoming;
+        }
+        Long heldVersion = held.product().version();
+        Long incomingVersion = incoming.product().version();
+        return heldVersion != null && incomingVersion != null && heldVersion > incomingVersion ? held : incoming;
+    }
+
+    // Both sides are in id order: walk them together, letting an overlay entry replace its row
+    private List<ProductResponse> merge(ProductSnapshot current, int count, IntUnaryOperator rowAt,
+                                        Predicate<ProductResponse> matches) {
+        List<ProductResponse> products = new ArrayList<>(count + overlay.size());
+        Iterator<Map.Entry<Long, Patch>> patches = overlay.entrySet().iterator();
+        Map.Entry<Long, Patch> patch = patches.hasNext() ? patches.next() : null;
+        for (int i = 0; i < count; i++) {
+            int row = rowAt.applyAsInt(i);
+            long id = current.id(row);
+            while (patch != null && patch.getKey() < id) {
+                addIfMatches(products, patch.getValue(), matches);
+                patch = patches.hasNext() ? patches.next() : null;
+            }
+            if (patch != null && patch.getKey() == id) {
+                addIfMatches(products, patch.getValue(), matches);
+                patch = patches.hasNext() ? patches.next() : null;
+                continue;
+            }
+            // The iterator may have missed a change that arrived while walking
+            Patch late = overlay.get(id);
+            if (late == null) {
+                products.add(current.product(row));
+            } else {
+                addIfMatches(products, late, matches);
+            }
+        }
+        while (patch != null) {
+            addIfMatches(products, patch.getValue(), matches);
+            patch = patches.hasNext() ? patches.next() : null;
+        }
+        return products;
+    }
+
+    private static void addIfMatches(List<ProductResponse> products, Patch patch, Predicate<ProductResponse> matches) {
+        if (patch.product() != null && matches.test(patch.product())) {
+            products.add(patch.product());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package zgz.demo.test.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import zgz.demo.test.models.ProductChangedEvent;
+import zgz.demo.test.models.ProductResponse;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collection ETags and the node-local generations that say when a cached listing is out of date.
+ * The ETag is derived from the listed products themselves, so every node, restarted or not, issues
+ * the same tag for the same data and a conditional GET validates wherever the balancer sends it.
+ * Generations are bumped after commit, once the data caches (whose listeners are ordered ahead of
+ * this one) have dropped the change, so a listing keyed by a generation is never older than it.
+ */
+@Component
+public class ProductVersions {
+
+    private final AtomicLong global = new AtomicLong();
+    // Bumped when a change touched an unknown category, invalidating every category at once
+    private final AtomicLong allCategories = new AtomicLong();
+    private final ConcurrentHashMap<String, AtomicLong> categories = new ConcurrentHashMap<>();
+
+    public String allGeneration() {
+        return "all-" + global.get();
+    }
+
+    public String categoryGeneration(String category) {
+        AtomicLong version = categories.get(category);
+        return "cat-" + allCategories.get() + "-" + (version == null ? 0 : version.get());
+    }
+
+    /**
+     * @return a strong ETag that changes whenever any listed product, or the list itself, does
+     */
+    public static String etag(List<ProductResponse> products) {
+        return etag(products, false);
+    }
+
+    /**
+     * @param truncated whether more products matched than are listed, which is part of the response too
+     */
+    public static String etag(List<ProductResponse> products, boolean truncated) {
+        long hash = products.size() * 2L + (truncated ? 1 : 0);
+        for (ProductResponse product : products) {
+            hash = hash * 1_000_003 + Objects.hashCode(product.id());
+            hash = hash * 1_000_003 + Objects.hashCode(product.version());
+            hash = hash * 1_000_003 + Objects.hashCode(product.name());
+            hash = hash * 1_000_003 + Objects.hashCode(product.description());
+            hash = hash * 1_000_003 + Objects.hashCode(product.category());
+            hash = hash * 1_000_003 + Objects.hashCode(product.price());
+        }
+        return "\"" + Long.toString(hash, 36) + "\"";
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.current() != null) {
+            bump(event.current().category());
+        }
+        if (event.previous() != null) {
+            bump(event.previous().category());
+        } else if (event.type() != ProductChangedEvent.ChangeType.CREATED) {
+            allCategories.incrementAndGet();
+        }
+        global.incrementAndGet();
+    }
+
+    private void bump(String category) {
+        if (category != null) {
+            categories.computeIfAbsent(category, c -> new AtomicLong()).incrementAndGet();
+        }
+    }
+}
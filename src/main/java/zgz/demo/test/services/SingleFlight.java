@@ -0,0 +1,94 @@
+package zgz.demo.test.services;
+
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the load on its own thread,
+ * callers arriving while it runs wait up to {@code timeout} for the same result or exception.
+ * Forgetting a key moves its flight to a new generation; the leader can ask whether that happened
+ * while it loaded, i.e. whether its result may predate the change that caused the forget.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final Duration timeout;
+
+    SingleFlight(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    private static final class Flight<V> extends CompletableFuture<V> {
+
+        private volatile boolean forgotten;
+    }
+
+    V execute(K key, Supplier<V> load) {
+        return executeTracked(key, forgotten -> load.get());
+    }
+
+    /**
+     * @param load runs on the leader and is given a check that turns true once the key is forgotten
+     */
+    V executeTracked(K key, Function<BooleanSupplier, V> load) {
+        Flight<V> flight = new Flight<>();
+        Flight<V> current = flights.putIfAbsent(key, flight);
+        if (current != null) {
+            return await(current);
+        }
+        try {
+            V value = load.apply(() -> flight.forgotten);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Callers from now on start a fresh load; those already waiting keep the one in flight.
+     */
+    void forget(K key) {
+        Flight<V> flight = flights.remove(key);
+        if (flight != null) {
+            flight.forgotten = true;
+        }
+    }
+
+    // A flight registered after the loop began also started after the change, so it may stay
+    void forgetAll() {
+        flights.keySet().forEach(this::forget);
+    }
+
+    private V await(CompletableFuture<V> flight) {
+        try {
+            return flight.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            // The leader's own exception, so every waiter fails the way the leader did
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("No result from an identical in-flight query within " + timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Interrupted while waiting for an identical in-flight query");
+        }
+    }
+}
@@ -0,0 +1,16 @@
+-- Idempotent so it can run over a database previously created by ddl-auto (baseline-version 0)
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS products (
+    id          BIGINT         NOT NULL PRIMARY KEY,
+    name        VARCHAR(255)   NOT NULL,
+    description VARCHAR(255),
+    category    VARCHAR(255),
+    price       NUMERIC(38, 2) NOT NULL
+);
+
+-- A table created under IDENTITY already holds ids. The pooled optimizer hands out the block ending
+-- at the sequence value, so start one whole block (allocationSize 50) above them
+ALTER SEQUENCE products_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM products);
+
+CREATE INDEX IF NOT EXISTS idx_products_category_id ON products (category, id);
@@ -0,0 +1,12 @@
+CREATE SEQUENCE IF NOT EXISTS product_changes_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS product_changes (
+    seq         BIGINT         NOT NULL PRIMARY KEY,
+    type        VARCHAR(16)    NOT NULL,
+    product_id  BIGINT         NOT NULL,
+    name        VARCHAR(255),
+    description VARCHAR(255),
+    category    VARCHAR(255),
+    price       NUMERIC(38, 2),
+    changed_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
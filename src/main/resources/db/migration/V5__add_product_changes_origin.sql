@@ -0,0 +1,5 @@
+ALTER TABLE product_changes ADD COLUMN IF NOT EXISTS node VARCHAR(64);
+ALTER TABLE product_changes ADD COLUMN IF NOT EXISTS previous_category VARCHAR(255);
+ALTER TABLE product_changes ADD COLUMN IF NOT EXISTS version BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_product_changes_changed_at ON product_changes (changed_at, seq);
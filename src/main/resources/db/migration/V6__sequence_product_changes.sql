@@ -0,0 +1,12 @@
+-- Feed order is commit order, assigned after commit; existing rows are numbered on the first run
+ALTER TABLE product_changes ADD COLUMN IF NOT EXISTS commit_seq BIGINT;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_product_changes_commit_seq ON product_changes (commit_seq);
+
+CREATE TABLE IF NOT EXISTS product_change_counter (
+    id              INTEGER NOT NULL PRIMARY KEY,
+    last_commit_seq BIGINT  NOT NULL
+);
+
+INSERT INTO product_change_counter (id, last_commit_seq)
+SELECT 1, 0 WHERE NOT EXISTS (SELECT 1 FROM product_change_counter);
@@ -0,0 +1,2 @@
+-- changed_at comes from the database clock rather than the writing node's
+ALTER TABLE product_changes ALTER COLUMN changed_at SET DEFAULT CURRENT_TIMESTAMP;
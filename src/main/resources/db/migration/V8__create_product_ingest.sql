@@ -0,0 +1,10 @@
+CREATE SEQUENCE IF NOT EXISTS product_ingest_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS product_ingest (
+    id          BIGINT         NOT NULL PRIMARY KEY,
+    tracking_id VARCHAR(64)    NOT NULL,
+    name        VARCHAR(255)   NOT NULL,
+    description VARCHAR(255),
+    category    VARCHAR(255),
+    price       NUMERIC(38, 2) NOT NULL
+);
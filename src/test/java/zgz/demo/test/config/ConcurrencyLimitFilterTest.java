@@ -0,0 +1,114 @@
+package zgz.demo.test.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void requestOverTheCap_isShedOnceItsWaitRunsOut() throws Exception {
+        // Arrange
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(10), registry);
+        MockHttpServletResponse[] second = new MockHttpServletResponse[1];
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse(),
+                (req, res) -> second[0] = send(filter, "/products"));
+
+        // Assert
+        assertThat(second[0].getStatus()).isEqualTo(503);
+        assertThat(second[0].getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(send(filter, "/products").getStatus()).isEqualTo(200);
+        assertThat(registry.get("products.requests.rejected").tag("reason", "queue_timeout").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void requestOverTheCap_runsWhenAPermitFreesUpInTime() throws Exception {
+        // Arrange
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofSeconds(10), registry);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse(),
+                        (req, res) -> {
+                            holding.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        holding.await();
+
+        // Act
+        CompletableFuture<MockHttpServletResponse> second = CompletableFuture.supplyAsync(() -> send(filter, "/products"));
+        while (registry.get("products.requests.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Assert
+        assertThat(second.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void asyncRequest_keepsItsPermitUntilItCompletes() throws Exception {
+        // Arrange
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO, registry);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products/stream");
+        request.setAsyncSupported(true);
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        int duringAsync = send(filter, "/products").getStatus();
+        request.getAsyncContext().complete();
+
+        // Assert
+        assertThat(duringAsync).isEqualTo(503);
+        assertThat(send(filter, "/products").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void actuator_neverWaits() throws Exception {
+        // Arrange
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO, registry);
+        MockHttpServletResponse[] health = new MockHttpServletResponse[1];
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse(),
+                (req, res) -> health[0] = send(filter, "/actuator/health"));
+
+        // Assert
+        assertThat(health[0].getStatus()).isEqualTo(200);
+    }
+
+    private static MockHttpServletResponse send(ConcurrencyLimitFilter filter, String uri) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(new MockHttpServletRequest("GET", uri), response, new MockFilterChain());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+}
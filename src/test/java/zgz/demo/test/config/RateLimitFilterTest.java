@@ -0,0 +1,176 @@
+package zgz.demo.test.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // One permit per second on a clock that only moves when a test moves it, so a spent burst never
+    // refills by itself
+    private final AtomicLong now = new AtomicLong();
+    private final AdaptiveConcurrencyLimit inFlightLimit = new AdaptiveConcurrencyLimit(1, 4, 2.0, now::get);
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new ClientRateLimiter(1, 2, 100, Duration.ofMinutes(1), now::get),
+            new ClientRateLimiter(1, 1, 100, Duration.ofMinutes(1), now::get),
+            inFlightLimit,
+            registry);
+
+    @Test
+    void clientOverItsBurst_isLimitedWithoutAffectingOthers() throws Exception {
+        // Arrange
+        send("GET", "10.0.0.1");
+        send("GET", "10.0.0.1");
+
+        // Act
+        MockHttpServletResponse limited = send("GET", "10.0.0.1");
+        MockHttpServletResponse other = send("GET", "10.0.0.2");
+
+        // Assert
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(other.getStatus()).isEqualTo(200);
+        assertThat(registry.get("products.requests.rejected").tag("reason", "rate_limited").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void writes_drawOnTheirOwnBudget() throws Exception {
+        // Arrange
+        send("POST", "10.0.0.1");
+
+        // Act & Assert
+        assertThat(send("POST", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(send("GET", "10.0.0.1").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void overInFlightLimit_shedsWritesBeforeReads() throws Exception {
+        // Arrange: three requests in flight puts writes (limit 3) at capacity but not reads (limit 4)
+        int[] statuses = new int[2];
+        FilterChain busy = (first, firstResponse) -> filter.doFilter(
+                request("GET", "10.0.0.2"), new MockHttpServletResponse(),
+                (second, secondResponse) -> filter.doFilter(
+                        request("GET", "10.0.0.3"), new MockHttpServletResponse(),
+                        (third, thirdResponse) -> {
+                            statuses[0] = send("POST", "10.0.0.9").getStatus();
+                            statuses[1] = send("GET", "10.0.0.9").getStatus();
+                        }));
+
+        // Act
+        MockHttpServletRequest request = request("GET", "10.0.0.8");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, busy);
+
+        // Assert
+        assertThat(statuses[0]).isEqualTo(503);
+        assertThat(statuses[1]).isEqualTo(200);
+        assertThat(filter.inFlight()).isZero();
+        assertThat(registry.get("products.requests.rejected").tag("reason", "overloaded").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void asyncRequest_staysInFlightUntilItCompletes() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = request("GET", "10.0.0.1");
+        request.setAsyncSupported(true);
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        int duringAsync = filter.inFlight();
+        request.getAsyncContext().complete();
+
+        // Assert
+        assertThat(duringAsync).isEqualTo(1);
+        assertThat(filter.inFlight()).isZero();
+    }
+
+    @Test
+    void slowRequests_lowerTheInFlightLimit() throws Exception {
+        // Arrange: a fast request sets the latency baseline
+        filter.doFilter(request("GET", "10.0.0.1"), new MockHttpServletResponse(),
+                (req, res) -> now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1)));
+
+        // Act
+        filter.doFilter(request("GET", "10.0.0.2"), new MockHttpServletResponse(),
+                (req, res) -> now.addAndGet(TimeUnit.MILLISECONDS.toNanos(10)));
+
+        // Assert
+        assertThat(inFlightLimit.limit()).isEqualTo(3);
+        assertThat(registry.get("products.requests.concurrency.limit").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    void inherentlySlowRoutes_doNotLowerTheInFlightLimit() throws Exception {
+        // Arrange: lookups by id are fast, full listings always take longer
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(request("GET", "10.0.0.1"), new MockHttpServletResponse(),
+                    handledBy("/products/{id}", TimeUnit.MILLISECONDS.toNanos(1)));
+            filter.doFilter(request("GET", "10.0.0.2"), new MockHttpServletResponse(),
+                    handledBy("/products", TimeUnit.MILLISECONDS.toNanos(50)));
+        }
+
+        // Act: a stream holds its slot far longer than anything else
+        MockHttpServletRequest stream = request("GET", "10.0.0.3");
+        stream.setAsyncSupported(true);
+        filter.doFilter(stream, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        stream.getAsyncContext().complete();
+
+        // Assert
+        assertThat(inFlightLimit.limit()).isEqualTo(4);
+        assertThat(filter.inFlight()).isZero();
+    }
+
+    @Test
+    void actuator_isNeverLimited() throws Exception {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            send("GET", "/actuator/health", "10.0.0.1");
+        }
+
+        // Act & Assert
+        assertThat(send("GET", "/actuator/health", "10.0.0.1").getStatus()).isEqualTo(200);
+    }
+
+    private MockHttpServletResponse send(String method, String client) throws IOException, ServletException {
+        return send(method, "/products", client);
+    }
+
+    private MockHttpServletResponse send(String method, String uri, String client)
+            throws IOException, ServletException {
+        MockHttpServletRequest request = request(method, client);
+        request.setRequestURI(uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private FilterChain handledBy(String pattern, long latencyNanos) {
+        return (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+            now.addAndGet(latencyNanos);
+        };
+    }
+
+    private static MockHttpServletRequest request(String method, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/products");
+        request.setRemoteAddr(client);
+        return request;
+    }
+}
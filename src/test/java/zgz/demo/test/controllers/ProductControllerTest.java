@@ -1,30 +1,49 @@
 package zgz.demo.test.controllers;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import zgz.demo.test.config.WireFormat;
+import zgz.demo.test.config.WireFormatConfig;
+import zgz.demo.test.config.exeptions.PreconditionFailedException;
+import zgz.demo.test.config.exeptions.ProductNotFoundException;
 import zgz.demo.test.mappers.ProductMapper;
+import zgz.demo.test.models.ProductChangedEvent;
+import zgz.demo.test.models.ProductChangedEvent.ChangeType;
+import zgz.demo.test.models.ProductPage;
 import zgz.demo.test.models.ProductRequest;
 import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.models.ProductSlice;
+import zgz.demo.test.services.ProductPayloadCache;
 import zgz.demo.test.services.ProductServiceImpl;
+import zgz.demo.test.services.ProductVersions;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.stream.LongStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = ProductController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import({ProductVersions.class, ProductPayloadCache.class, WireFormatConfig.class})
 class ProductControllerTest {
 
     @Autowired
@@ -39,6 +58,15 @@ class ProductControllerTest {
     @MockitoBean
     private ProductMapper productMapper;
 
+    @Autowired
+    private ProductVersions productVersions;
+
+    @BeforeEach
+    void moveGenerations() {
+        // Encoded bodies are cached per generation, so every test starts from generations no other test has seen
+        productVersions.onProductChanged(new ProductChangedEvent(ChangeType.DELETED, 0L, null, null));
+    }
+
     @Test
     void getAll_returnsOkWithProductList() throws Exception {
         // Arrange
@@ -64,6 +92,168 @@ class ProductControllerTest {
         Mockito.verifyNoMoreInteractions(productService);
     }
 
+    @Test
+    void getAll_reusesEncodedPayloadUntilAChange() throws Exception {
+        // Arrange: large enough to cross the gzip threshold
+        Mockito.when(productService.findAll()).thenReturn(LongStream.rangeClosed(1, 50)
+                .mapToObj(id -> new ProductResponse(id, "Phone", "Nice phone", "electronics", new BigDecimal("299.99")))
+                .toList());
+
+        // Act & Assert
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"));
+        }
+        Mockito.verify(productService, Mockito.times(1)).findAll();
+
+        productVersions.onProductChanged(new ProductChangedEvent(ChangeType.DELETED, 1L, null, null));
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$[0].name").value("Phone"));
+        Mockito.verify(productService, Mockito.times(2)).findAll();
+    }
+
+    @Test
+    void getAll_gzipRefusedByQualityZero_returnsIdentity() throws Exception {
+        // Arrange: large enough to cross the gzip threshold
+        Mockito.when(productService.findAll()).thenReturn(LongStream.rangeClosed(1, 50)
+                .mapToObj(id -> new ProductResponse(id, "Phone", "Nice phone", "electronics", new BigDecimal("299.99")))
+                .toList());
+
+        // Act & Assert
+        mockMvc.perform(get("/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *;q=1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$", hasSize(50)));
+        mockMvc.perform(get("/products").header(HttpHeaders.ACCEPT_ENCODING, "br, *;q=0.5"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    void getAll_withCborAccept_returnsCborEncodedList() throws Exception {
+        // Arrange
+        Mockito.when(productService.findAll()).thenReturn(List.of(
+                new ProductResponse(1L, "Phone", "Nice phone", "electronics", new BigDecimal("299.99")),
+                new ProductResponse(2L, "Chair", "Wooden chair", "furniture", new BigDecimal("89.50"))));
+
+        // Act
+        byte[] body = mockMvc.perform(get("/products").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        List<ProductResponse> decoded = new CBORMapper().readValue(body, new TypeReference<>() {
+        });
+        assertThat(decoded).hasSize(2);
+        assertThat(decoded.get(1).price()).isEqualByComparingTo("89.50");
+    }
+
+    @Test
+    void getAll_tagsEachFormatAndEncodingSeparately() throws Exception {
+        // Arrange: large enough to cross the gzip threshold
+        Mockito.when(productService.findAll()).thenReturn(LongStream.rangeClosed(1, 50)
+                .mapToObj(id -> new ProductResponse(id, "Phone", "Nice phone", "electronics", new BigDecimal("299.99")))
+                .toList());
+        // Act
+        String jsonTag = mockMvc.perform(get("/products"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String gzipTag = mockMvc.perform(get("/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String cborTag = mockMvc.perform(get("/products").accept(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Assert: a tag for one representation never validates another
+        assertThat(List.of(jsonTag, gzipTag, cborTag)).doesNotHaveDuplicates();
+        mockMvc.perform(get("/products").header(HttpHeaders.IF_NONE_MATCH, gzipTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, jsonTag));
+    }
+
+    @Test
+    void getAll_withMatchingETag_returnsNotModifiedWithoutQuerying() throws Exception {
+        // Arrange
+        Mockito.when(productService.findAll()).thenReturn(List.of(
+                new ProductResponse(1L, "Phone", "Nice phone", "electronics", new BigDecimal("299.99"), 3L)));
+        String etag = mockMvc.perform(get("/products").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        mockMvc.perform(get("/products")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        Mockito.verify(productService, Mockito.times(1)).findAll();
+    }
+
+    @Test
+    void getAll_sameDataKeepsItsETagAcrossGenerations() throws Exception {
+        // Arrange: another node, or this one after a restart, has its own generations but the same data
+        Mockito.when(productService.findAll()).thenReturn(List.of(
+                new ProductResponse(1L, "Phone", "Nice phone", "electronics", new BigDecimal("299.99"), 3L)));
+        String etag = mockMvc.perform(get("/products"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        productVersions.onProductChanged(new ProductChangedEvent(ChangeType.DELETED, 9L, null, null));
+
+        // Act & Assert
+        mockMvc.perform(get("/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        Mockito.verify(productService, Mockito.times(2)).findAll();
+    }
+
+    @Test
+    void getByCategory_withStaleETag_returnsOkWithNewETag() throws Exception {
+        // Arrange
+        String category = "electronics";
+        Mockito.when(productService.findByCategory(category)).thenReturn(List.of());
+        String staleEtag = mockMvc.perform(get("/products/category/{category}", category))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        ProductResponse created = new ProductResponse(1L, "Phone", "Nice phone", category, new BigDecimal("299.99"), 0L);
+        productVersions.onProductChanged(new ProductChangedEvent(ChangeType.CREATED, 1L, null, created));
+        Mockito.when(productService.findByCategory(category)).thenReturn(List.of(created));
+
+        // Act & Assert
+        mockMvc.perform(get("/products/category/{category}", category)
+                        .header(HttpHeaders.IF_NONE_MATCH, staleEtag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG,
+                        WireFormat.JSON.etag(ProductVersions.etag(List.of(created)), false)));
+
+        Mockito.verify(productService, Mockito.times(2)).findByCategory(category);
+    }
+
+    @Test
+    void getPage_returnsItemsAndNextCursor() throws Exception {
+        // Arrange
+        List<ProductResponse> responses = List.of(
+                new ProductResponse(11L, "Phone", "Nice phone", "electronics", new BigDecimal("299.99")),
+                new ProductResponse(12L, "Chair", "Wooden chair", "furniture", new BigDecimal("89.50"))
+        );
+        Mockito.when(productService.findPage(10L, 2)).thenReturn(new ProductPage(responses, 12L));
+
+        // Act & Assert
+        mockMvc.perform(get("/products")
+                        .param("after", "10")
+                        .param("limit", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id").value(11))
+                .andExpect(jsonPath("$.items[1].id").value(12))
+                .andExpect(jsonPath("$.nextCursor").value(12));
+
+        Mockito.verify(productService).findPage(10L, 2);
+        Mockito.verifyNoMoreInteractions(productService);
+    }
+
     @Test
     void getByCategory_returnsOkWithFilteredList() throws Exception {
         // Arrange
@@ -114,6 +304,68 @@ class ProductControllerTest {
         Mockito.verifyNoMoreInteractions(productService);
     }
 
+    @Test
+    void create_missingNameOrPrice_returnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"No name\",\"category\":\"electronics\"}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+
+        Mockito.verifyNoInteractions(productService);
+    }
+
+    @Test
+    void update_malformedIfMatch_returnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/products/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Phone\",\"price\":299.99}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("If-Match must be a product version"));
+
+        Mockito.verifyNoInteractions(productService);
+    }
+
+    @Test
+    void getAll_internalIllegalArgument_isNotEchoed() throws Exception {
+        // Arrange
+        Mockito.when(productService.findFiltered(any(), Mockito.anyInt()))
+                .thenThrow(new IllegalArgumentException("column PRICE_SECRET not found"));
+
+        // Act & Assert
+        mockMvc.perform(get("/products").param("category", "electronics"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message").value("An unexpected error occurred"));
+    }
+
+    @Test
+    void getAll_filteredResultCutAtTheLimit_saysSo() throws Exception {
+        // Arrange
+        List<ProductResponse> responses = List.of(
+                new ProductResponse(1L, "Phone", "Nice phone", "electronics", new BigDecimal("299.99"), 0L));
+        Mockito.when(productService.findFiltered(any(), eq(1)))
+                .thenReturn(new ProductSlice(responses, true));
+        Mockito.when(productService.findFiltered(any(), eq(2)))
+                .thenReturn(new ProductSlice(responses, false));
+
+        // Act
+        String cut = mockMvc.perform(get("/products").param("category", "electronics").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ProductController.TRUNCATED_HEADER, "true"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Assert: the complete result is another response, so it does not validate the cut one
+        mockMvc.perform(get("/products").param("category", "electronics").param("limit", "2")
+                        .header(HttpHeaders.IF_NONE_MATCH, cut))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ProductController.TRUNCATED_HEADER, "false"));
+    }
+
     @Test
     void update_returnsOkWithUpdatedProduct() throws Exception {
         // Arrange
@@ -124,7 +376,7 @@ class ProductControllerTest {
         ProductResponse updated = new ProductResponse(
                 id, request.name(), request.description(), request.category(), request.price()
         );
-        Mockito.when(productService.update(eq(id), any(ProductRequest.class))).thenReturn(updated);
+        Mockito.when(productService.update(eq(id), any(ProductRequest.class), isNull())).thenReturn(updated);
 
         // Act & Assert
         mockMvc.perform(put("/products/{id}", id)
@@ -137,10 +389,87 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.name").value("Table"))
                 .andExpect(jsonPath("$.category").value("furniture"));
 
-        Mockito.verify(productService).update(eq(id), any(ProductRequest.class));
+        Mockito.verify(productService).update(eq(id), any(ProductRequest.class), isNull());
+        Mockito.verifyNoMoreInteractions(productService);
+    }
+
+    @Test
+    void patch_returnsOkWithPatchedProduct() throws Exception {
+        // Arrange
+        long id = 6L;
+        ProductRequest changes = new ProductRequest(null, null, null, new BigDecimal("9.99"));
+        ProductResponse patched = new ProductResponse(id, "Lamp", "Desk lamp", "furniture", changes.price());
+        Mockito.when(productService.patch(eq(id), any(ProductRequest.class), isNull())).thenReturn(patched);
+
+        // Act & Assert
+        mockMvc.perform(patch("/products/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changes))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value((int) id))
+                .andExpect(jsonPath("$.name").value("Lamp"))
+                .andExpect(jsonPath("$.price").value(9.99));
+
+        Mockito.verify(productService).patch(eq(id), any(ProductRequest.class), isNull());
         Mockito.verifyNoMoreInteractions(productService);
     }
 
+    @Test
+    void update_withIfMatch_passesVersionAndReturnsNewETag() throws Exception {
+        // Arrange
+        long id = 8L;
+        ProductRequest request = new ProductRequest("Sofa", "Corner sofa", "furniture", new BigDecimal("899.00"));
+        ProductResponse updated = new ProductResponse(id, request.name(), request.description(), request.category(),
+                request.price(), 4L);
+        Mockito.when(productService.update(eq(id), any(ProductRequest.class), eq(3L))).thenReturn(updated);
+
+        // Act & Assert
+        mockMvc.perform(put("/products/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    void update_withStaleIfMatch_returnsPreconditionFailed() throws Exception {
+        // Arrange
+        long id = 8L;
+        ProductRequest request = new ProductRequest("Sofa", "Corner sofa", "furniture", new BigDecimal("899.00"));
+        Mockito.when(productService.update(eq(id), any(ProductRequest.class), eq(2L)))
+                .thenThrow(new PreconditionFailedException("Product with ID 8 is no longer at version 2"));
+
+        // Act & Assert
+        mockMvc.perform(put("/products/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void patch_missingProduct_returnsNotFoundBody() throws Exception {
+        // Arrange
+        long id = 404L;
+        Mockito.when(productService.patch(eq(id), any(ProductRequest.class), isNull()))
+                .thenThrow(new ProductNotFoundException(id));
+
+        // Act & Assert
+        mockMvc.perform(patch("/products/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\": 1.00}"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.error").value("Not Found"))
+                .andExpect(jsonPath("$.message").value("The requested resource was not found"))
+                .andExpect(jsonPath("$.path").value("/products/404"))
+                .andExpect(jsonPath("$.timestamp").isNotEmpty());
+    }
+
     @Test
     void delete_returnsNoContent() throws Exception {
         // Arrange
@@ -0,0 +1,94 @@
+package zgz.demo.test.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import zgz.demo.test.config.exeptions.ServiceUnavailableException;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.services.ProductIngestService;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ProductIngestController.class, properties = "products.ingest.enabled=true")
+@AutoConfigureMockMvc(addFilters = false)
+class ProductIngestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private ProductIngestService ingestService;
+
+    @Test
+    void ingest_validProduct_returnsAcceptedWithLocation() throws Exception {
+        // Arrange
+        Mockito.when(ingestService.submit(any(ProductRequest.class))).thenReturn(Optional.of("m1abc-1"));
+
+        // Act & Assert
+        mockMvc.perform(post("/products/ingest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ProductRequest("Lamp", "Desk lamp", "lighting", new BigDecimal("19.90")))))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/products/ingest/m1abc-1"))
+                .andExpect(jsonPath("$.state").value("PENDING"));
+    }
+
+    @Test
+    void ingest_queueFull_returnsTooManyRequests() throws Exception {
+        // Arrange
+        Mockito.when(ingestService.submit(any(ProductRequest.class))).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(post("/products/ingest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ProductRequest("Lamp", "Desk lamp", "lighting", new BigDecimal("19.90")))))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void ingest_stagingFailed_returnsServiceUnavailable() throws Exception {
+        // Arrange
+        Mockito.when(ingestService.submit(any(ProductRequest.class)))
+                .thenThrow(new ServiceUnavailableException("The product could not be queued, retry later"));
+
+        // Act & Assert
+        mockMvc.perform(post("/products/ingest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ProductRequest("Lamp", "Desk lamp", "lighting", new BigDecimal("19.90")))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value(503));
+    }
+
+    @Test
+    void ingest_invalidProduct_returnsBadRequestWithoutQueuing() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/products/ingest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ProductRequest(" ", null, "lighting", new BigDecimal("-1")))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("name")))
+                .andExpect(jsonPath("$.message").value(containsString("price")));
+
+        Mockito.verifyNoInteractions(ingestService);
+    }
+}
@@ -0,0 +1,56 @@
+package zgz.demo.test.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.services.ProductReactiveService;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ProductReactiveController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ProductReactiveControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ProductReactiveService reactiveService;
+
+    @Test
+    void streamByCategory_writesOneJsonObjectPerLine() throws Exception {
+        // Arrange
+        Mockito.when(reactiveService.findByCategory("electronics")).thenReturn(Flux.just(
+                new ProductResponse(1L, "Phone", "Nice phone", "electronics", new BigDecimal("299.99")),
+                new ProductResponse(2L, "Laptop", "Gaming", "electronics", new BigDecimal("1299.00"))
+        ));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/products/category/{category}", "electronics")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"name\":\"Phone\"")))
+                .andExpect(content().string(containsString("\"name\":\"Laptop\"")));
+
+        Mockito.verify(reactiveService).findByCategory("electronics");
+    }
+}
@@ -0,0 +1,55 @@
+package zgz.demo.test.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import zgz.demo.test.config.ApiKeyAuthenticationFilter;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("prod")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:testdb-prod;DB_CLOSE_DELAY=-1;MODE=LEGACY",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "products.security.api-keys.it-client=it-secret"
+})
+class ApiKeySecurityIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void validApiKey_isAuthorized() throws Exception {
+        mockMvc.perform(get("/products/category/{category}", "toys")
+                        .header(ApiKeyAuthenticationFilter.HEADER, "it-secret")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void missingOrWrongApiKey_isUnauthorized() throws Exception {
+        mockMvc.perform(get("/products/category/{category}", "toys")
+                        .header("Referer", "/swagger-ui")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/products/category/{category}", "toys")
+                        .header(ApiKeyAuthenticationFilter.HEADER, "it-secreT")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void healthEndpoint_isPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+}
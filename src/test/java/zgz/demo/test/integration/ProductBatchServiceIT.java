@@ -0,0 +1,85 @@
+package zgz.demo.test.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import zgz.demo.test.models.BatchItemResult;
+import zgz.demo.test.models.BatchResult;
+import zgz.demo.test.models.ProductBatchUpdateRequest;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.repositories.ProductRepository;
+import zgz.demo.test.services.ProductBatchService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:testdb-batch;DB_CLOSE_DELAY=-1;MODE=LEGACY",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "products.batch.chunk-size=7"
+})
+class ProductBatchServiceIT {
+
+    @Autowired
+    private ProductBatchService batchService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void createAll_persistsValidItemsAcrossChunksAndReportsInvalidOnes() {
+        List<ProductRequest> requests = new ArrayList<>(IntStream.range(0, 20)
+                .mapToObj(i -> new ProductRequest("Product " + i, "Bulk", "bulk", new BigDecimal("1.00")))
+                .toList());
+        requests.set(3, new ProductRequest(null, "No name", "bulk", new BigDecimal("1.00")));
+
+        BatchResult result = batchService.createAll(requests);
+
+        assertThat(result.succeeded()).isEqualTo(19);
+        assertThat(result.failed()).isEqualTo(1);
+        assertThat(result.items()).extracting(BatchItemResult::index)
+                .containsExactlyElementsOf(IntStream.range(0, 20).boxed().toList());
+        assertThat(result.items().get(3).status()).isEqualTo(BatchItemResult.Status.FAILED);
+        assertThat(productRepository.count()).isEqualTo(19);
+    }
+
+    @Test
+    void updateAllAndDeleteAll_reportNotFoundPerItem() {
+        BatchResult created = batchService.createAll(List.of(
+                new ProductRequest("Phone", "Nice phone", "electronics", new BigDecimal("299.99")),
+                new ProductRequest("Chair", "Wooden chair", "furniture", new BigDecimal("89.50"))
+        ));
+        Long phoneId = created.items().get(0).id();
+        Long chairId = created.items().get(1).id();
+
+        BatchResult updated = batchService.updateAll(List.of(
+                new ProductBatchUpdateRequest(phoneId, "Phone 2", "Newer phone", "electronics", new BigDecimal("399.99")),
+                new ProductBatchUpdateRequest(-1L, "Ghost", null, "none", BigDecimal.ONE)
+        ));
+
+        assertThat(updated.items()).extracting(BatchItemResult::status)
+                .containsExactly(BatchItemResult.Status.UPDATED, BatchItemResult.Status.NOT_FOUND);
+        assertThat(productRepository.findById(phoneId)).get()
+                .satisfies(p -> assertThat(p.getName()).isEqualTo("Phone 2"));
+
+        BatchResult deleted = batchService.deleteAll(List.of(chairId, -1L));
+
+        assertThat(deleted.items()).extracting(BatchItemResult::status)
+                .containsExactly(BatchItemResult.Status.DELETED, BatchItemResult.Status.NOT_FOUND);
+        assertThat(productRepository.findById(chairId)).isEmpty();
+    }
+}
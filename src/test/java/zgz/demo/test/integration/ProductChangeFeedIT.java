@@ -0,0 +1,180 @@
+package zgz.demo.test.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import zgz.demo.test.models.ProductChange;
+import zgz.demo.test.models.ProductChangedEvent.ChangeType;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.services.ProductBatchService;
+import zgz.demo.test.services.ProductChangeFeed;
+import zgz.demo.test.services.ProductServiceImpl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:testdb-changes;DB_CLOSE_DELAY=-1;MODE=LEGACY",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "products.changes.batch-size=3"
+})
+class ProductChangeFeedIT {
+
+    @Autowired
+    private ProductServiceImpl productService;
+
+    @Autowired
+    private ProductBatchService batchService;
+
+    @Autowired
+    private ProductChangeFeed changeFeed;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void stream_returnsEveryCommittedChangeInOrderAcrossBatches() {
+        // Arrange
+        long since = changeFeed.stream(0, ProductChangeFeed.MAX_CHANGES, change -> { });
+        ProductResponse created = productService.create(
+                new ProductRequest("Lamp", "Desk lamp", "furniture", new BigDecimal("19.90")));
+        productService.update(created.id(), new ProductRequest("Lamp", "Desk lamp", "lighting", new BigDecimal("24.90")));
+        assertThatThrownBy(() -> productService.update(-1L, new ProductRequest("Ghost", null, null, BigDecimal.ONE)))
+                .isInstanceOf(NoSuchElementException.class);
+        batchService.createAll(IntStream.range(0, 4)
+                .mapToObj(i -> new ProductRequest("Bulk " + i, null, "bulk", BigDecimal.ONE))
+                .toList());
+        productService.delete(created.id());
+
+        // Act
+        List<ProductChange> changes = new ArrayList<>();
+        long next = changeFeed.stream(since, ProductChangeFeed.MAX_CHANGES, changes::add);
+
+        // Assert
+        assertThat(changes).extracting(ProductChange::type).containsExactly(
+                ChangeType.CREATED, ChangeType.UPDATED,
+                ChangeType.CREATED, ChangeType.CREATED, ChangeType.CREATED, ChangeType.CREATED,
+                ChangeType.DELETED);
+        assertThat(changes).extracting(ProductChange::seq).isSorted();
+        assertThat(changes.get(1).product().category()).isEqualTo("lighting");
+        assertThat(changes.get(6).product()).isNull();
+        assertThat(next).isEqualTo(changes.get(6).seq());
+    }
+
+    @Test
+    void stream_honoursLimit() {
+        // Arrange
+        long since = changeFeed.stream(0, ProductChangeFeed.MAX_CHANGES, change -> { });
+        batchService.createAll(IntStream.range(0, 5)
+                .mapToObj(i -> new ProductRequest("Item " + i, null, "items", BigDecimal.ONE))
+                .toList());
+
+        // Act
+        List<ProductChange> changes = new ArrayList<>();
+        changeFeed.stream(since, 4, changes::add);
+
+        // Assert
+        assertThat(changes).hasSize(4);
+    }
+
+    @Test
+    void stream_deliversAChangeCommittedAfterTheCursorMovedPastALaterOne() throws Exception {
+        // Arrange: the slow writer draws its outbox id first but commits last
+        long since = changeFeed.stream(0, ProductChangeFeed.MAX_CHANGES, change -> { });
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try (ExecutorService writer = Executors.newSingleThreadExecutor()) {
+            Future<ProductResponse> slow = writer.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+                ProductResponse created = productService.create(
+                        new ProductRequest("Slow", null, "slow", BigDecimal.ONE));
+                written.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return created;
+            }));
+            written.await();
+            ProductResponse fast = productService.create(new ProductRequest("Fast", null, "fast", BigDecimal.ONE));
+            List<ProductChange> first = new ArrayList<>();
+            long cursor = changeFeed.stream(since, ProductChangeFeed.MAX_CHANGES, first::add);
+
+            // Act
+            commit.countDown();
+            ProductResponse late = slow.get();
+            List<ProductChange> second = new ArrayList<>();
+            changeFeed.stream(cursor, ProductChangeFeed.MAX_CHANGES, second::add);
+
+            // Assert
+            assertThat(first).extracting(ProductChange::productId).containsExactly(fast.id());
+            assertThat(second).extracting(ProductChange::productId).containsExactly(late.id());
+            assertThat(second.getFirst().seq()).isEqualTo(cursor + 1);
+        }
+    }
+
+    @Test
+    void prune_dropsOldChangesAndExpiresCursorsBehindThem() {
+        // Arrange
+        long since = changeFeed.stream(0, ProductChangeFeed.MAX_CHANGES, change -> { });
+        productService.create(new ProductRequest("Old", null, "old", BigDecimal.ONE));
+        long behind = changeFeed.stream(since, ProductChangeFeed.MAX_CHANGES, change -> { });
+        productService.create(new ProductRequest("Older", null, "old", BigDecimal.ONE));
+        long current = changeFeed.stream(behind, ProductChangeFeed.MAX_CHANGES, change -> { });
+        jdbcTemplate.update("UPDATE product_changes SET changed_at = DATEADD('DAY', -30, changed_at)");
+        productService.create(new ProductRequest("New", null, "new", BigDecimal.ONE));
+
+        // Act
+        changeFeed.prune();
+
+        // Assert
+        assertThat(changeFeed.isRetained(behind)).isFalse();
+        assertThat(changeFeed.isRetained(current)).isTrue();
+        List<ProductChange> changes = new ArrayList<>();
+        changeFeed.stream(0, ProductChangeFeed.MAX_CHANGES, changes::add);
+        assertThat(changes).extracting(ProductChange::seq).containsExactly(current + 1);
+    }
+
+    @Test
+    void prune_neverLeavesAGapBehindAnOlderRetainedChange() {
+        // Arrange: the later commit was stamped first, as when its transaction began before the other's
+        productService.create(new ProductRequest("Seen", null, "gap", BigDecimal.ONE));
+        long since = changeFeed.stream(0, ProductChangeFeed.MAX_CHANGES, change -> { });
+        productService.create(new ProductRequest("Quick", null, "gap", BigDecimal.ONE));
+        productService.create(new ProductRequest("Long", null, "gap", BigDecimal.ONE));
+        long last = changeFeed.stream(since, ProductChangeFeed.MAX_CHANGES, change -> { });
+        jdbcTemplate.update("UPDATE product_changes SET changed_at = DATEADD('DAY', -30, changed_at) "
+                + "WHERE commit_seq = ?", last);
+
+        // Act
+        changeFeed.prune();
+
+        // Assert: the earlier commit goes with it, so a cursor before both is reported expired
+        assertThat(changeFeed.isRetained(since)).isFalse();
+        assertThat(changeFeed.isRetained(last)).isTrue();
+        List<ProductChange> changes = new ArrayList<>();
+        changeFeed.stream(since, ProductChangeFeed.MAX_CHANGES, changes::add);
+        assertThat(changes).isEmpty();
+    }
+}
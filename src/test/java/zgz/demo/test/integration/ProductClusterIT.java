@@ -0,0 +1,137 @@
+package zgz.demo.test.integration;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import zgz.demo.test.TestApplication;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.services.ProductServiceImpl;
+
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application instances on one machine sharing an H2 TCP server, as in the cluster profile.
+ * Read scaling across instances is measured by {@code ClusterReadBenchmark} in the JMH profile.
+ */
+class ProductClusterIT {
+
+    private static Server database;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startCluster() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        database = Server.createTcpServer("-tcpPort", String.valueOf(port), "-ifNotExists").start();
+        String url = "jdbc:h2:tcp://localhost:" + port + "/mem:cluster;DB_CLOSE_DELAY=-1;MODE=LEGACY";
+        nodeA = startNode(url, "node-a");
+        nodeB = startNode(url, "node-b");
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        nodeB.close();
+        nodeA.close();
+        database.stop();
+    }
+
+    @Test
+    void writesOnOneNode_becomeVisibleInTheOtherNodesCaches() {
+        // Arrange
+        ProductServiceImpl serviceA = nodeA.getBean(ProductServiceImpl.class);
+        ProductServiceImpl serviceB = nodeB.getBean(ProductServiceImpl.class);
+        ProductResponse lamp = serviceA.create(new ProductRequest("Lamp", "Desk lamp", "lighting", new BigDecimal("19.90")));
+        assertThat(serviceB.findByCategory("lighting")).extracting(ProductResponse::id).contains(lamp.id());
+
+        // Act
+        serviceA.update(lamp.id(), new ProductRequest("Lamp", "Desk lamp", "lamps", new BigDecimal("24.90")));
+
+        // Assert
+        awaitTrue(() -> serviceB.findByCategory("lighting").stream().noneMatch(p -> p.id().equals(lamp.id()))
+                && serviceB.findByCategory("lamps").stream().anyMatch(p -> p.id().equals(lamp.id())
+                && p.price().compareTo(new BigDecimal("24.90")) == 0));
+
+        serviceB.delete(lamp.id());
+        awaitTrue(() -> serviceA.findByCategory("lamps").stream().noneMatch(p -> p.id().equals(lamp.id())));
+    }
+
+    @Test
+    void writeCommittedLongAfterItWasAppended_stillReachesTheOtherNode() throws Exception {
+        // Arrange
+        ProductServiceImpl serviceA = nodeA.getBean(ProductServiceImpl.class);
+        ProductServiceImpl serviceB = nodeB.getBean(ProductServiceImpl.class);
+        ProductResponse desk = serviceA.create(new ProductRequest("Desk", null, "desks", new BigDecimal("149.00")));
+        assertThat(serviceB.findByCategory("desks")).extracting(ProductResponse::id).contains(desk.id());
+        CountDownLatch appended = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        TransactionTemplate transactionA = new TransactionTemplate(nodeA.getBean(PlatformTransactionManager.class));
+
+        try (ExecutorService writer = Executors.newSingleThreadExecutor()) {
+            // Act: node B's own later writes are replayed on A while A's change is still uncommitted
+            Future<?> slow = writer.submit(() -> transactionA.executeWithoutResult(status -> {
+                serviceA.update(desk.id(), new ProductRequest("Desk", null, "standing-desks", new BigDecimal("149.00")));
+                appended.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            appended.await();
+            ProductResponse chair = serviceB.create(new ProductRequest("Chair", null, "chairs", BigDecimal.TEN));
+            awaitTrue(() -> serviceA.findByCategory("chairs").stream().anyMatch(p -> p.id().equals(chair.id())));
+            commit.countDown();
+            slow.get();
+        }
+
+        // Assert
+        awaitTrue(() -> serviceB.findByCategory("standing-desks").stream().anyMatch(p -> p.id().equals(desk.id())));
+    }
+
+    private static void awaitTrue(Supplier<Boolean> condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.get()) {
+            assertThat(System.nanoTime()).as("change reached the other node in time").isLessThan(deadline);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(String url, String nodeId) {
+        return new SpringApplicationBuilder(TestApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--spring.jpa.show-sql=false",
+                "--spring.h2.console.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.zgz.demo.test=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--products.cluster.enabled=true",
+                "--products.cluster.node-id=" + nodeId,
+                "--products.cluster.poll-interval=50ms");
+    }
+}
@@ -0,0 +1,64 @@
+package zgz.demo.test.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import zgz.demo.test.config.ProductIdSequence;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.services.ProductServiceImpl;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:testdb-id-sequence;DB_CLOSE_DELAY=-1;MODE=LEGACY",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+class ProductIdSequenceIT {
+
+    @Autowired
+    private ProductIdSequence idSequence;
+
+    @Autowired
+    private ProductServiceImpl productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void create_afterRowsWrittenUnderIdentity_doesNotReuseTheirIds() {
+        // Arrange: rows 1..64 as the shipped file database holds them, with a brand-new sequence
+        jdbcTemplate.update("INSERT INTO products (id, name, category, price, version) "
+                + "SELECT X, 'Legacy ' || X, 'legacy', 1.00, 0 FROM SYSTEM_RANGE(1, 64)");
+        jdbcTemplate.execute("ALTER SEQUENCE products_seq RESTART WITH 1");
+        idSequence.afterPropertiesSet();
+
+        // Act
+        ProductResponse created = productService.create(
+                new ProductRequest("Lamp", "Desk lamp", "legacy", new BigDecimal("19.99")));
+
+        // Assert
+        assertThat(created.id()).isEqualTo(65L);
+    }
+
+    @Test
+    void afterPropertiesSet_leavesASequenceAlreadyAheadAlone() {
+        // Arrange
+        jdbcTemplate.execute("ALTER SEQUENCE products_seq RESTART WITH 10000");
+
+        // Act
+        idSequence.afterPropertiesSet();
+
+        // Assert
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'PRODUCTS_SEQ'",
+                Long.class)).isEqualTo(10000L);
+    }
+}
@@ -0,0 +1,103 @@
+package zgz.demo.test.integration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.repositories.ProductRepository;
+import zgz.demo.test.services.ProductServiceImpl;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:testdb-replica;DB_CLOSE_DELAY=-1;MODE=LEGACY",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "products.datasource.replica.enabled=true",
+        // A separate database that never receives the primary's writes: a replica lagging forever
+        "products.datasource.replica.jdbc-url=jdbc:h2:mem:testdb-replica-lagging;DB_CLOSE_DELAY=-1;MODE=LEGACY",
+        "products.datasource.replica.username=sa",
+        "products.datasource.replica.password=",
+        "products.datasource.replica.maximum-pool-size=2"
+})
+class ProductReadReplicaIT {
+
+    @Autowired
+    private ProductServiceImpl productService;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primary;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replica;
+
+    @BeforeEach
+    void createReplicaSchema() {
+        new JdbcTemplate(replica).execute("CREATE TABLE IF NOT EXISTS products (id BIGINT PRIMARY KEY, "
+                + "name VARCHAR(255) NOT NULL, description VARCHAR(255), category VARCHAR(255), "
+                + "price NUMERIC(38, 2) NOT NULL, version BIGINT NOT NULL)");
+    }
+
+    @Test
+    void readOnlyTransaction_runsOnReplicaPool() {
+        // Arrange
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // Act & Assert
+        readOnly.executeWithoutResult(status -> {
+            repository.findResponsesByCategory("none");
+            assertThat(replica.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+            assertThat(primary.getHikariPoolMXBean().getActiveConnections()).isZero();
+        });
+    }
+
+    @Test
+    void writeTransaction_runsOnPrimaryPool() throws Exception {
+        // Arrange: start the replica pool so its counters exist
+        replica.getConnection().close();
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        // Act & Assert
+        readWrite.executeWithoutResult(status -> {
+            repository.updateByIdReturningPrevious(-1L, "Ghost", null, null, BigDecimal.ONE);
+            assertThat(primary.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+            assertThat(replica.getHikariPoolMXBean().getActiveConnections()).isZero();
+        });
+    }
+
+    @Test
+    void cacheLoadAfterWrite_readsPrimary_whileReplicaLags() {
+        // Arrange
+        ProductResponse created = productService.create(
+                new ProductRequest("Desk", "Standing desk", "replica-office", new BigDecimal("349.00")));
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // Act & Assert
+        assertThat(readOnly.execute(status -> repository.findResponsesByCategory("replica-office"))).isEmpty();
+        assertThat(productService.findByCategory("replica-office"))
+                .extracting(ProductResponse::id)
+                .containsExactly(created.id());
+    }
+}
@@ -0,0 +1,190 @@
+package zgz.demo.test.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+import zgz.demo.test.config.exeptions.PreconditionFailedException;
+import zgz.demo.test.models.ProductChangeEntity;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.repositories.ProductChangeRepository;
+import zgz.demo.test.repositories.ProductRepository;
+import zgz.demo.test.services.OptimisticRetry;
+import zgz.demo.test.services.ProductServiceImpl;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:testdb-service;DB_CLOSE_DELAY=-1;MODE=LEGACY",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "products.concurrency.max-attempts=100"
+})
+class ProductServiceImplIT {
+
+    @Autowired
+    private ProductServiceImpl productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductChangeRepository changeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OptimisticRetry retry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAllInBatch();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void update_issuesSingleProductStatement() {
+        ProductResponse created = productService.create(
+                new ProductRequest("Table", "Office table", "furniture", new BigDecimal("149.00")));
+        statistics.clear();
+
+        ProductResponse updated = productService.update(created.id(),
+                new ProductRequest("Table XL", "Bigger table", "furniture", new BigDecimal("199.00")));
+
+        // The UPDATE, which also returns the row it replaced, plus its outbox INSERT; the outbox sequence
+        // block was fetched on create
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(updated.name()).isEqualTo("Table XL");
+        assertThat(updated.version()).isEqualTo(created.version() + 1);
+        assertThat(productRepository.findById(created.id())).get()
+                .satisfies(p -> assertThat(p.getPrice()).isEqualByComparingTo("199.00"));
+    }
+
+    @Test
+    void update_unknownId_throwsNotFound() {
+        assertThatThrownBy(() -> productService.update(-1L,
+                new ProductRequest("Ghost", null, null, BigDecimal.ONE)))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void update_staleVersion_failsPreconditionAndKeepsRow() {
+        ProductResponse created = productService.create(
+                new ProductRequest("Desk", "Standing desk", "furniture", new BigDecimal("349.00")));
+        productService.update(created.id(),
+                new ProductRequest("Desk", "Standing desk", "furniture", new BigDecimal("329.00")), created.version());
+
+        assertThatThrownBy(() -> productService.update(created.id(),
+                new ProductRequest("Desk", "Standing desk", "furniture", new BigDecimal("9.00")), created.version()))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> productService.patch(created.id(),
+                new ProductRequest(null, null, null, new BigDecimal("9.00")), created.version()))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(productRepository.findResponseById(created.id())).get()
+                .satisfies(p -> assertThat(p.price()).isEqualByComparingTo("329.00"))
+                .satisfies(p -> assertThat(p.version()).isEqualTo(created.version() + 1));
+    }
+
+    @Test
+    void retriedConditionalUpdates_loseNoConcurrentIncrement() throws Exception {
+        ProductResponse created = productService.create(
+                new ProductRequest("Counter", null, "misc", BigDecimal.ZERO));
+        int writers = 8;
+        int incrementsPerWriter = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = IntStream.range(0, writers)
+                    .<Future<?>>mapToObj(w -> executor.submit(() -> {
+                        for (int i = 0; i < incrementsPerWriter; i++) {
+                            retry.execute(() -> {
+                                ProductResponse current = productRepository.findResponseById(created.id()).orElseThrow();
+                                return productService.update(created.id(), new ProductRequest(current.name(),
+                                        current.description(), current.category(), current.price().add(BigDecimal.ONE)),
+                                        current.version());
+                            });
+                        }
+                    }))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(productRepository.findResponseById(created.id())).get()
+                .satisfies(p -> assertThat(p.price()).isEqualByComparingTo(String.valueOf(writers * incrementsPerWriter)));
+    }
+
+    @Test
+    void updates_recordTheCategoryTheRowHadBeforeEachWrite() {
+        ProductResponse created = productService.create(
+                new ProductRequest("Bench", "Wooden bench", "furniture", new BigDecimal("89.00")));
+
+        productService.update(created.id(), new ProductRequest("Bench", "Wooden bench", "outdoor", new BigDecimal("89.00")));
+        productService.update(created.id(),
+                new ProductRequest("Bench", "Wooden bench", "garden", new BigDecimal("89.00")), created.version() + 1);
+        productService.patch(created.id(), new ProductRequest(null, null, "patio", null));
+
+        assertThat(changeRepository.findAll(Sort.by("seq")))
+                .filteredOn(change -> change.getProductId().equals(created.id()))
+                .extracting(ProductChangeEntity::getPreviousCategory)
+                .containsExactly(null, "furniture", "outdoor", "garden");
+    }
+
+    @Test
+    void repositoryCalls_areTimedPerMethod() {
+        long before = repositoryTimer("save").count();
+
+        productService.create(new ProductRequest("Shelf", null, "furniture", new BigDecimal("39.00")));
+
+        assertThat(repositoryTimer("save").count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void patch_writesOnlyProvidedFields() {
+        ProductResponse created = productService.create(
+                new ProductRequest("Lamp", "Desk lamp", "furniture", new BigDecimal("19.90")));
+
+        ProductResponse patched = productService.patch(created.id(),
+                new ProductRequest(null, null, "lighting", null));
+
+        assertThat(patched.name()).isEqualTo("Lamp");
+        assertThat(patched.description()).isEqualTo("Desk lamp");
+        assertThat(patched.category()).isEqualTo("lighting");
+        assertThat(patched.price()).isEqualByComparingTo("19.90");
+    }
+
+    private Timer repositoryTimer(String method) {
+        return meterRegistry.get("products.repository")
+                .tags("repository", "ProductRepository", "method", method)
+                .timer();
+    }
+}
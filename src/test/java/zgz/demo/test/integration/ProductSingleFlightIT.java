@@ -0,0 +1,121 @@
+package zgz.demo.test.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.services.ProductBatchService;
+import zgz.demo.test.services.ProductServiceImpl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:testdb-single-flight;DB_CLOSE_DELAY=-1;MODE=LEGACY",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "zgz.demo.test.integration.ProductSingleFlightIT$HeldStatements",
+        // Nothing is kept between requests, so only the single flight can coalesce them
+        "products.cache.ttl=0s"
+})
+class ProductSingleFlightIT {
+
+    private static final int REQUESTS = 32;
+
+    @Autowired
+    private ProductServiceImpl productService;
+
+    @Autowired
+    private ProductBatchService batchService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Holds the first statement issued while armed until the test releases it.
+     */
+    public static class HeldStatements implements StatementInspector {
+
+        static volatile CountDownLatch entered;
+        static volatile CountDownLatch release;
+
+        @Override
+        public String inspect(String sql) {
+            CountDownLatch held = release;
+            if (held != null && sql.contains("category")) {
+                release = null;
+                entered.countDown();
+                try {
+                    held.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return sql;
+        }
+    }
+
+    @Test
+    void findByCategory_concurrentIdenticalMissesIssueOneQuery() throws Exception {
+        // Arrange
+        batchService.createAll(IntStream.range(0, 10)
+                .mapToObj(i -> new ProductRequest("Hot " + i, null, "hot", BigDecimal.ONE))
+                .toList());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        CountDownLatch release = new CountDownLatch(1);
+        HeldStatements.entered = new CountDownLatch(1);
+        HeldStatements.release = release;
+
+        try (ExecutorService clients = Executors.newFixedThreadPool(REQUESTS)) {
+            // Act
+            List<Thread> threads = new ArrayList<>();
+            List<Future<List<ProductResponse>>> responses = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                responses.add(clients.submit(() -> {
+                    synchronized (threads) {
+                        threads.add(Thread.currentThread());
+                    }
+                    return productService.findByCategory("hot");
+                }));
+            }
+            HeldStatements.entered.await();
+            // Every other request is parked on the leader's result before its query may finish
+            while (true) {
+                synchronized (threads) {
+                    if (threads.size() == REQUESTS && threads.stream()
+                            .filter(thread -> thread.getState() == Thread.State.TIMED_WAITING)
+                            .count() == REQUESTS - 1) {
+                        break;
+                    }
+                }
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // Assert
+            for (Future<List<ProductResponse>> response : responses) {
+                assertThat(response.get()).hasSize(10);
+            }
+        }
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,137 @@
+package zgz.demo.test.repositories;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import zgz.demo.test.models.ProductEntity;
+import zgz.demo.test.models.ProductFilter;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.services.ProductServiceImpl;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "zgz.demo.test.repositories.ProductRepositoryTest$CapturingStatementInspector")
+class ProductRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.saveAll(List.of(
+                product("Phone X", "electronics", "299.99"),
+                product("Chair A", "furniture", "89.50"),
+                product("Laptop Z", "electronics", "1299.00")
+        ));
+    }
+
+    @Test
+    void findResponsesByCategory_returnsProjectedRecordsOrderedById() {
+        List<ProductResponse> responses = productRepository.findResponsesByCategory("electronics");
+
+        assertThat(responses).extracting(ProductResponse::name).containsExactly("Phone X", "Laptop Z");
+        assertThat(responses).allMatch(r -> r.id() != null && "electronics".equals(r.category()));
+    }
+
+    @Test
+    void categoryLookup_usesCategoryIndexInsteadOfTableScan() {
+        productRepository.findResponsesByCategory("electronics");
+
+        String plan = explainLastQuery("electronics");
+
+        assertThat(plan).containsIgnoringCase("idx_products_category_id");
+        assertThat(plan).doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void findBy_categoryAndPriceRange_filtersAndSortsInTheDatabase() {
+        ProductFilter filter = new ProductFilter("electronics", new BigDecimal("100"), new BigDecimal("1000"), null);
+
+        List<ProductEntity> products = productRepository.findBy(ProductSpecifications.matching(filter),
+                query -> query.sortBy(Sort.by(Sort.Direction.DESC, "price")).all());
+
+        assertThat(products).extracting(ProductEntity::getName).containsExactly("Phone X");
+    }
+
+    @Test
+    void categoryAndPriceRange_usesCategoryPriceIndex() {
+        findFiltered(new ProductFilter("electronics", new BigDecimal("100"), new BigDecimal("1000"), null));
+
+        String plan = explainLastQuery("electronics", new BigDecimal("100"), new BigDecimal("1000"));
+
+        assertThat(plan).containsIgnoringCase("idx_products_category_price");
+        assertThat(plan).doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void priceRangeOnly_usesPriceIndex() {
+        findFiltered(new ProductFilter(null, new BigDecimal("100"), new BigDecimal("1000"), null));
+
+        String plan = explainLastQuery(new BigDecimal("100"), new BigDecimal("1000"));
+
+        assertThat(plan).containsIgnoringCase("idx_products_price");
+        assertThat(plan).doesNotContainIgnoringCase("tableScan");
+    }
+
+    // The query findFiltered runs for sort=price: the specification, "order by price, id" and the limit
+    private void findFiltered(ProductFilter filter) {
+        productRepository.findBy(ProductSpecifications.matching(filter),
+                query -> query.sortBy(Sort.by("price").and(Sort.by("id"))).limit(ProductServiceImpl.MAX_PAGE_SIZE).all());
+    }
+
+    // Explains the SQL Hibernate generated last; placeholders beyond the given values are the row limit
+    private String explainLastQuery(Object... values) {
+        String sql = CapturingStatementInspector.last();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int placeholders = statement.getParameterMetaData().getParameterCount();
+                for (int i = 0; i < placeholders; i++) {
+                    statement.setObject(i + 1, i < values.length ? values[i] : ProductServiceImpl.MAX_PAGE_SIZE);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        });
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        private static final AtomicReference<String> LAST = new AtomicReference<>();
+
+        static String last() {
+            return LAST.get();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            LAST.set(sql);
+            return sql;
+        }
+    }
+
+    private static ProductEntity product(String name, String category, String price) {
+        ProductEntity entity = new ProductEntity();
+        entity.setName(name);
+        entity.setDescription(name + " description");
+        entity.setCategory(category);
+        entity.setPrice(new BigDecimal(price));
+        return entity;
+    }
+}
@@ -0,0 +1,123 @@
+package zgz.demo.test.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import zgz.demo.test.config.exeptions.ServiceUnavailableException;
+import zgz.demo.test.models.BatchItemResult;
+import zgz.demo.test.models.BatchResult;
+import zgz.demo.test.models.IngestStatus;
+import zgz.demo.test.models.ProductIngestEntity;
+import zgz.demo.test.models.ProductRequest;
+import zgz.demo.test.repositories.ProductIngestRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+
+class ProductIngestServiceTest {
+
+    private static final ProductRequest REQUEST = new ProductRequest("Lamp", null, "furniture", BigDecimal.ONE);
+
+    private final AtomicLong ids = new AtomicLong();
+    private ProductBatchService batchService;
+    private ProductIngestRepository stagingRepository;
+
+    @BeforeEach
+    void setUp() {
+        batchService = Mockito.mock(ProductBatchService.class);
+        stagingRepository = Mockito.mock(ProductIngestRepository.class);
+        Mockito.when(stagingRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ProductIngestEntity> rows = invocation.getArgument(0);
+            rows.forEach(row -> row.setId(ids.incrementAndGet()));
+            return rows;
+        });
+        Mockito.when(stagingRepository.deleteByIds(anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).size());
+    }
+
+    @Test
+    void submit_rejectsWhenFullAndStopDrainsEverythingAccepted() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(batchService.createAll(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return created(invocation.getArgument(0));
+        });
+        ProductIngestService ingestService = ingestService(2);
+        ingestService.start();
+
+        // Act & Assert
+        String first = ingestService.submit(REQUEST).orElseThrow();
+        while (ingestService.queued() > 0) {
+            Thread.onSpinWait();
+        }
+        String second = ingestService.submit(REQUEST).orElseThrow();
+        String third = ingestService.submit(REQUEST).orElseThrow();
+        assertThat(ingestService.submit(REQUEST)).isEmpty();
+        assertThat(ingestService.status(second)).get().extracting(IngestStatus::state).isEqualTo(IngestStatus.State.PENDING);
+        Mockito.verify(stagingRepository, Mockito.times(3)).saveAll(anyList());
+
+        release.countDown();
+        ingestService.stop();
+
+        assertThat(List.of(first, second, third))
+                .allSatisfy(trackingId -> assertThat(ingestService.status(trackingId)).get()
+                        .extracting(IngestStatus::state).isEqualTo(IngestStatus.State.CREATED));
+        assertThat(ingestService.submit(REQUEST)).isEmpty();
+    }
+
+    @Test
+    void submit_whenStagingFails_isNotAcknowledged() {
+        // Arrange
+        Mockito.when(stagingRepository.saveAll(anyList())).thenThrow(new IllegalStateException("database down"));
+        ProductIngestService ingestService = ingestService(10);
+        ingestService.start();
+
+        // Act & Assert: a failure of our own, not backpressure
+        assertThatThrownBy(() -> ingestService.submit(REQUEST)).isInstanceOf(ServiceUnavailableException.class);
+        ingestService.stop();
+
+        assertThat(ingestService.queued()).isZero();
+        Mockito.verifyNoInteractions(batchService);
+    }
+
+    @Test
+    void start_writesProductsStagedBeforeACrash() {
+        // Arrange
+        ProductIngestEntity row = new ProductIngestEntity(7L, "old-1", "Lamp", null, "furniture", BigDecimal.ONE);
+        Mockito.when(stagingRepository.findAllByOrderByIdAsc()).thenReturn(List.of(row));
+        Mockito.when(batchService.createAll(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+        ProductIngestService ingestService = ingestService(10);
+
+        // Act
+        ingestService.start();
+        ingestService.stop();
+
+        // Assert
+        assertThat(ingestService.status("old-1")).get().extracting(IngestStatus::state).isEqualTo(IngestStatus.State.CREATED);
+        Mockito.verify(stagingRepository).deleteByIds(List.of(7L));
+        Mockito.verify(batchService).createAll(List.of(REQUEST));
+    }
+
+    private ProductIngestService ingestService(int capacity) {
+        return new ProductIngestService(batchService, stagingRepository, Mockito.mock(PlatformTransactionManager.class),
+                capacity, 1, Duration.ofMinutes(1), 100, Duration.ofSeconds(10));
+    }
+
+    private BatchResult created(List<ProductRequest> requests) {
+        return BatchResult.of(IntStream.range(0, requests.size())
+                .mapToObj(i -> new BatchItemResult(i, 100 + ids.incrementAndGet(), BatchItemResult.Status.CREATED, null))
+                .toList());
+    }
+}
@@ -0,0 +1,86 @@
+package zgz.demo.test.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import zgz.demo.test.models.ProductChangedEvent;
+import zgz.demo.test.models.ProductChangedEvent.ChangeType;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.repositories.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private ProductRepository repository;
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(ProductRepository.class);
+        when(repository.streamAllResponses()).thenAnswer(invocation -> Stream.of(
+                product(1L, "Gaming Laptop", "Fast laptop for games"),
+                product(2L, "Office chair", "Ergonomic chair for laptop users"),
+                product(3L, "Laptop stand", "Aluminium stand")));
+        index = new ProductSearchIndex(repository, Mockito.mock(PlatformTransactionManager.class), true);
+        index.build();
+    }
+
+    @Test
+    void search_matchesPrefixesAndRanksNameHitsFirst() {
+        assertThat(index.search("lap", 10)).containsExactly(1L, 3L, 2L);
+    }
+
+    @Test
+    void search_limitKeepsTheBestHitsInRankOrder() {
+        assertThat(index.search("lap", 2)).containsExactly(1L, 3L);
+        assertThat(index.search("lap", 1)).containsExactly(1L);
+    }
+
+    @Test
+    void search_requiresEveryToken() {
+        assertThat(index.search("laptop gam", 10)).containsExactly(1L);
+        assertThat(index.search("laptop sofa", 10)).isEmpty();
+    }
+
+    @Test
+    void onProductChanged_reindexesAndRemoves() {
+        index.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, 3L, null,
+                product(3L, "Monitor stand", "Aluminium stand")));
+        index.onProductChanged(new ProductChangedEvent(ChangeType.DELETED, 2L, null, null));
+
+        assertThat(index.search("laptop", 10)).containsExactly(1L);
+        assertThat(index.search("monitor", 10)).containsExactly(3L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void build_neverOverwritesAWriteCommittedWhileItStreamed() {
+        // Arrange: the write commits after the build's read began, so the stream still has the old row
+        ProductSearchIndex building = new ProductSearchIndex(repository, Mockito.mock(PlatformTransactionManager.class), true);
+        when(repository.streamAllResponses()).thenAnswer(invocation -> {
+            building.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, 1L, null,
+                    new ProductResponse(1L, "Gaming notebook", null, "misc", BigDecimal.ONE, 2L)));
+            return Stream.of(new ProductResponse(1L, "Gaming Laptop", null, "misc", BigDecimal.ONE, 1L));
+        });
+
+        // Act
+        boolean readyBefore = building.isReady();
+        building.build();
+
+        // Assert
+        assertThat(readyBefore).isFalse();
+        assertThat(building.isReady()).isTrue();
+        assertThat(building.search("notebook", 10)).containsExactly(1L);
+        assertThat(building.search("laptop", 10)).isEmpty();
+    }
+
+    private static ProductResponse product(Long id, String name, String description) {
+        return new ProductResponse(id, name, description, "misc", BigDecimal.ONE);
+    }
+}
@@ -0,0 +1,93 @@
+package zgz.demo.test.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import zgz.demo.test.models.ProductChangedEvent;
+import zgz.demo.test.models.ProductChangedEvent.ChangeType;
+import zgz.demo.test.models.ProductResponse;
+import zgz.demo.test.repositories.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class ProductSnapshotStoreTest {
+
+    private ProductRepository repository;
+    private ProductSnapshotStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(ProductRepository.class);
+        when(repository.streamAllResponses()).thenAnswer(invocation -> Stream.of(
+                product(1L, "Laptop", "electronics", "1299.99"),
+                new ProductResponse(2L, "Chair", null, null, new BigDecimal("45.50")),
+                product(3L, "Phone", "electronics", "299.99")));
+        store = new ProductSnapshotStore(repository, Mockito.mock(PlatformTransactionManager.class), 100);
+        store.rebuild();
+    }
+
+    @Test
+    void rebuild_roundTripsEveryColumn() {
+        assertThat(store.isReady()).isTrue();
+        assertThat(store.findAll()).containsExactly(
+                product(1L, "Laptop", "electronics", "1299.99"),
+                new ProductResponse(2L, "Chair", null, null, new BigDecimal("45.50")),
+                product(3L, "Phone", "electronics", "299.99"));
+        assertThat(store.findByCategory("electronics")).extracting(ProductResponse::id).containsExactly(1L, 3L);
+        assertThat(store.findByCategory("unknown")).isEmpty();
+    }
+
+    @Test
+    void onProductChanged_overlaysWritesInIdOrder() {
+        // Arrange
+        store.onProductChanged(new ProductChangedEvent(ChangeType.CREATED, 4L, null,
+                product(4L, "Tablet", "electronics", "499.00")));
+        store.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, 2L, null,
+                product(2L, "Smart chair", "electronics", "99.00")));
+        store.onProductChanged(new ProductChangedEvent(ChangeType.DELETED, 1L, null, null));
+
+        // Act & Assert
+        assertThat(store.findAll()).extracting(ProductResponse::id).containsExactly(2L, 3L, 4L);
+        assertThat(store.findByCategory("electronics")).extracting(ProductResponse::name)
+                .containsExactly("Smart chair", "Phone", "Tablet");
+    }
+
+    @Test
+    void onProductChanged_keepsTheHigherVersionWhateverTheListenerOrder() {
+        // Arrange: the second commit's listener runs first
+        store.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, 3L, null,
+                new ProductResponse(3L, "Phone", null, "phones", new BigDecimal("299.99"), 2L)));
+        store.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, 3L, null,
+                new ProductResponse(3L, "Phone", null, "gadgets", new BigDecimal("299.99"), 1L)));
+
+        // Act & Assert
+        assertThat(store.findByCategory("phones")).extracting(ProductResponse::id).containsExactly(3L);
+        assertThat(store.findByCategory("gadgets")).isEmpty();
+    }
+
+    @Test
+    void rebuild_foldsOverlayIntoSnapshot() {
+        // Arrange
+        store.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, 3L, null,
+                product(3L, "Phone", "phones", "299.99")));
+        when(repository.streamAllResponses()).thenAnswer(invocation -> Stream.of(
+                product(1L, "Laptop", "electronics", "1299.99"),
+                product(3L, "Phone", "phones", "299.99")));
+
+        // Act
+        store.rebuild();
+
+        // Assert
+        assertThat(store.findByCategory("electronics")).extracting(ProductResponse::id).containsExactly(1L);
+        assertThat(store.findByCategory("phones")).extracting(ProductResponse::id).containsExactly(3L);
+    }
+
+    private static ProductResponse product(Long id, String name, String category, String price) {
+        return new ProductResponse(id, name, name + " description", category, new BigDecimal(price));
+    }
+}
@@ -0,0 +1,171 @@
+package zgz.demo.test.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int WAITERS = 8;
+
+    private final SingleFlight<String, List<String>> flight = new SingleFlight<>(Duration.ofSeconds(5));
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    void execute_concurrentCallersShareOneLoadAndItsResult() throws Exception {
+        try (ExecutorService callers = Executors.newCachedThreadPool()) {
+            // Arrange
+            List<String> loaded = List.of("Phone");
+            Future<List<String>> leader = callers.submit(() -> flight.execute("electronics", () -> blockingLoad(loaded)));
+            started.await();
+
+            // Act
+            List<Future<List<String>>> waiters = submitWaiters(callers, () -> List.of("not expected"));
+            release.countDown();
+
+            // Assert
+            assertThat(leader.get()).isSameAs(loaded);
+            for (Future<List<String>> waiter : waiters) {
+                assertThat(waiter.get()).isSameAs(loaded);
+            }
+            assertThat(loads).hasValue(1);
+        }
+    }
+
+    @Test
+    void execute_leaderFailureReachesEveryWaiter() throws Exception {
+        try (ExecutorService callers = Executors.newCachedThreadPool()) {
+            // Arrange
+            IllegalStateException failure = new IllegalStateException("database down");
+            Future<List<String>> leader = callers.submit(() -> flight.execute("electronics", () -> {
+                blockingLoad(null);
+                throw failure;
+            }));
+            started.await();
+
+            // Act
+            List<Future<List<String>>> waiters = submitWaiters(callers, () -> List.of("not expected"));
+            release.countDown();
+
+            // Assert
+            assertThatThrownBy(leader::get).isInstanceOf(ExecutionException.class).hasCause(failure);
+            for (Future<List<String>> waiter : waiters) {
+                assertThatThrownBy(waiter::get).isInstanceOf(ExecutionException.class).hasCause(failure);
+            }
+            assertThat(loads).hasValue(1);
+        }
+    }
+
+    @Test
+    void execute_waiterGivesUpAfterTimeout() throws Exception {
+        SingleFlight<String, List<String>> impatient = new SingleFlight<>(Duration.ofMillis(50));
+        try (ExecutorService callers = Executors.newCachedThreadPool()) {
+            // Arrange
+            callers.submit(() -> impatient.execute("electronics", () -> blockingLoad(List.of())));
+            started.await();
+
+            // Act & Assert
+            assertThatThrownBy(() -> impatient.execute("electronics", List::of))
+                    .isInstanceOf(QueryTimeoutException.class);
+            release.countDown();
+        }
+    }
+
+    @Test
+    void forget_letsNewCallersStartAFreshLoad() throws Exception {
+        try (ExecutorService callers = Executors.newCachedThreadPool()) {
+            // Arrange
+            callers.submit(() -> flight.execute("electronics", () -> blockingLoad(List.of("Old"))));
+            started.await();
+
+            // Act
+            flight.forget("electronics");
+            List<String> fresh = flight.execute("electronics", () -> List.of("New"));
+
+            // Assert
+            assertThat(fresh).containsExactly("New");
+            release.countDown();
+        }
+    }
+
+    @Test
+    void forget_duringLoad_tellsTheLeaderItsResultMayBeStale() throws Exception {
+        try (ExecutorService callers = Executors.newCachedThreadPool()) {
+            // Arrange
+            Future<Boolean> staleAfterLoad = callers.submit(() -> {
+                AtomicBoolean stale = new AtomicBoolean();
+                flight.executeTracked("electronics", forgotten -> {
+                    List<String> loaded = blockingLoad(List.of("Old"));
+                    stale.set(forgotten.getAsBoolean());
+                    return loaded;
+                });
+                return stale.get();
+            });
+            started.await();
+
+            // Act
+            flight.forgetAll();
+            release.countDown();
+
+            // Assert
+            assertThat(staleAfterLoad.get()).isTrue();
+            assertThat(flight.executeTracked("electronics", forgotten -> {
+                assertThat(forgotten.getAsBoolean()).isFalse();
+                return List.of("New");
+            })).containsExactly("New");
+        }
+    }
+
+    private List<Future<List<String>>> submitWaiters(ExecutorService callers, Supplier<List<String>> load)
+            throws InterruptedException {
+        List<Future<List<String>>> waiters = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch submitted = new CountDownLatch(WAITERS);
+        for (int i = 0; i < WAITERS; i++) {
+            waiters.add(callers.submit(() -> {
+                synchronized (threads) {
+                    threads.add(Thread.currentThread());
+                }
+                submitted.countDown();
+                return flight.execute("electronics", load);
+            }));
+        }
+        submitted.await();
+        // Released only once every waiter is parked on the leader's result
+        synchronized (threads) {
+            for (Thread thread : threads) {
+                while (thread.getState() != Thread.State.TIMED_WAITING) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+        return waiters;
+    }
+
+    private List<String> blockingLoad(List<String> result) {
+        loads.incrementAndGet();
+        started.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+}